@@ -97,6 +97,7 @@ public class SecurityConfig {
                         ).permitAll()
                         .requestMatchers(HttpMethod.GET, "/users/**").permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/activities").authenticated()
                         .requestMatchers(HttpMethod.POST, "/users/*/reviews").authenticated()
                         .requestMatchers("/activities/new").authenticated()
@@ -0,0 +1,75 @@
+package com.scutelnic.joinus.config;
+
+import com.scutelnic.joinus.service.ActivityChatEventPublisher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class StompCompactWireFormatInterceptor implements ChannelInterceptor {
+
+    private final Set<String> compactSessionIds = ConcurrentHashMap.newKeySet();
+    private final DistributionSummary jsonFrameBytes;
+    private final DistributionSummary compactFrameBytes;
+
+    public StompCompactWireFormatInterceptor(MeterRegistry meterRegistry) {
+        this.jsonFrameBytes = frameBytes(meterRegistry, "json");
+        this.compactFrameBytes = frameBytes(meterRegistry, "compact");
+    }
+
+    @EventListener
+    public void onSessionConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String wireFormat = accessor.getFirstNativeHeader(ActivityChatEventPublisher.WIRE_FORMAT_HEADER);
+        if (accessor.getSessionId() != null && ActivityChatEventPublisher.COMPACT_WIRE_FORMAT.equalsIgnoreCase(wireFormat)) {
+            compactSessionIds.add(accessor.getSessionId());
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        compactSessionIds.remove(event.getSessionId());
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !(message.getHeaders().get(ActivityChatEventPublisher.COMPACT_PAYLOAD_HEADER) instanceof byte[] compact)
+                || !(message.getPayload() instanceof byte[] json)) {
+            return message;
+        }
+
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null || !compactSessionIds.contains(sessionId)) {
+            jsonFrameBytes.record(json.length);
+            return message;
+        }
+
+        compactFrameBytes.record(compact.length);
+        MessageHeaderAccessor accessor = MessageHeaderAccessor.getMutableAccessor(message);
+        accessor.removeHeader(ActivityChatEventPublisher.COMPACT_PAYLOAD_HEADER);
+        return MessageBuilder.createMessage(compact, accessor.getMessageHeaders());
+    }
+
+    private static DistributionSummary frameBytes(MeterRegistry meterRegistry, String format) {
+        return DistributionSummary.builder("joinus.websocket.outbound.event.bytes")
+                .description("Payload size of status, reaction and poll frames per delivered copy")
+                .baseUnit("bytes")
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,94 @@
+package com.scutelnic.joinus.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class StompOutboundBackpressureInterceptor implements ExecutorChannelInterceptor {
+
+    private final int maxDroppableBacklog;
+    private final Map<String, Integer> droppableBacklogBySession = new ConcurrentHashMap<>();
+    private final Counter droppedFrames;
+
+    public StompOutboundBackpressureInterceptor(@Value("${joinus.websocket.outbound.droppable-backlog:50}") int maxDroppableBacklog,
+                                                MeterRegistry meterRegistry) {
+        this.maxDroppableBacklog = Math.max(1, maxDroppableBacklog);
+        this.droppedFrames = Counter.builder("joinus.websocket.outbound.dropped")
+                .description("Status and reaction frames dropped for sessions that fell behind")
+                .register(meterRegistry);
+        Gauge.builder("joinus.websocket.outbound.backlog.sessions", droppableBacklogBySession, Map::size)
+                .description("Sessions with status or reaction frames still queued")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = droppableSessionId(message);
+        if (sessionId != null) {
+            droppableBacklogBySession.merge(sessionId, 1, Integer::sum);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // A frame the executor rejected never reaches beforeHandle, so its slot is released here.
+        if (ex != null || !sent) {
+            String sessionId = droppableSessionId(message);
+            if (sessionId != null) {
+                release(sessionId);
+            }
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String sessionId = droppableSessionId(message);
+        if (sessionId == null) {
+            return message;
+        }
+
+        // Frames still queued when the session disconnects recreate its entry in preSend; draining
+        // them back to zero removes it again instead of leaving it behind.
+        Integer remaining = release(sessionId);
+        if (remaining != null && remaining >= maxDroppableBacklog) {
+            droppedFrames.increment();
+            return null;
+        }
+        return message;
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        droppableBacklogBySession.remove(event.getSessionId());
+    }
+
+    private Integer release(String sessionId) {
+        return droppableBacklogBySession.computeIfPresent(sessionId, (key, queued) -> queued > 1 ? queued - 1 : null);
+    }
+
+    private String droppableSessionId(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !(destination.endsWith("/status") || destination.endsWith("/reactions"))) {
+            return null;
+        }
+        return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+}
@@ -1,27 +1,181 @@
 package com.scutelnic.joinus.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final BrokerMode brokerMode;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+    private final String relayVirtualHost;
+    private final boolean virtualThreads;
+    private final ChannelPoolSettings inboundPool;
+    private final ChannelPoolSettings outboundPool;
+    private final Duration sendTimeLimit;
+    private final int sendBufferSizeLimit;
+    private final int messageSizeLimit;
+    private final StompOutboundBackpressureInterceptor outboundBackpressureInterceptor;
+    private final StompCompactWireFormatInterceptor compactWireFormatInterceptor;
+    private final MeterRegistry meterRegistry;
+
+    public WebSocketConfig(@Value("${joinus.websocket.broker.mode:simple}") BrokerMode brokerMode,
+                           @Value("${joinus.websocket.broker.relay.host:localhost}") String relayHost,
+                           @Value("${joinus.websocket.broker.relay.port:61613}") int relayPort,
+                           @Value("${joinus.websocket.broker.relay.login:guest}") String relayLogin,
+                           @Value("${joinus.websocket.broker.relay.passcode:guest}") String relayPasscode,
+                           @Value("${joinus.websocket.broker.relay.virtual-host:}") String relayVirtualHost,
+                           @Value("${joinus.websocket.inbound.virtual-threads:${spring.threads.virtual.enabled:false}}") boolean virtualThreads,
+                           @Value("${joinus.websocket.inbound.core-pool-size:8}") int inboundCorePoolSize,
+                           @Value("${joinus.websocket.inbound.max-pool-size:32}") int inboundMaxPoolSize,
+                           @Value("${joinus.websocket.inbound.queue-capacity:1000}") int inboundQueueCapacity,
+                           @Value("${joinus.websocket.outbound.core-pool-size:8}") int outboundCorePoolSize,
+                           @Value("${joinus.websocket.outbound.max-pool-size:32}") int outboundMaxPoolSize,
+                           @Value("${joinus.websocket.outbound.queue-capacity:2000}") int outboundQueueCapacity,
+                           @Value("${joinus.websocket.transport.send-time-limit:PT15S}") Duration sendTimeLimit,
+                           @Value("${joinus.websocket.transport.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                           @Value("${joinus.websocket.transport.message-size-limit:65536}") int messageSizeLimit,
+                           StompOutboundBackpressureInterceptor outboundBackpressureInterceptor,
+                           StompCompactWireFormatInterceptor compactWireFormatInterceptor,
+                           MeterRegistry meterRegistry) {
+        this.brokerMode = brokerMode;
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.relayVirtualHost = relayVirtualHost;
+        this.virtualThreads = virtualThreads;
+        this.inboundPool = new ChannelPoolSettings("inbound", inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+        this.outboundPool = new ChannelPoolSettings("outbound", outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+        this.sendTimeLimit = sendTimeLimit;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.messageSizeLimit = messageSizeLimit;
+        this.outboundBackpressureInterceptor = outboundBackpressureInterceptor;
+        this.compactWireFormatInterceptor = compactWireFormatInterceptor;
+        this.meterRegistry = meterRegistry;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        if (brokerMode == BrokerMode.RELAY) {
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setUserDestinationBroadcast("/topic/joinus.unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/joinus.user-registry");
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         config.setApplicationDestinationPrefixes("/app");
+        config.setUserDestinationPrefix("/user");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("stomp-inbound-");
+            executor.setVirtualThreads(true);
+            registration.executor(executor);
+        } else {
+            registration.taskExecutor(channelExecutor(inboundPool));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor(outboundPool));
+        registration.interceptors(compactWireFormatInterceptor, outboundBackpressureInterceptor);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        if (virtualThreads) {
+            registry.setPreserveReceiveOrder(true);
+        }
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
-}
 
- 
\ No newline at end of file
+    private ThreadPoolTaskExecutor channelExecutor(ChannelPoolSettings settings) {
+        Counter rejections = Counter.builder("joinus.websocket.channel.rejected")
+                .tag("channel", settings.name())
+                .description("Tasks run on the caller thread because the channel executor was saturated")
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("stomp-" + settings.name() + "-");
+        executor.setCorePoolSize(settings.corePoolSize());
+        executor.setMaxPoolSize(Math.max(settings.corePoolSize(), settings.maxPoolSize()));
+        executor.setQueueCapacity(settings.queueCapacity());
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejections.increment();
+            new ThreadPoolExecutor.CallerRunsPolicy().rejectedExecution(task, pool);
+        });
+
+        Gauge.builder("joinus.websocket.channel.queued", executor, WebSocketConfig::queuedTasks)
+                .tag("channel", settings.name())
+                .register(meterRegistry);
+        Gauge.builder("joinus.websocket.channel.active", executor, WebSocketConfig::activeThreads)
+                .tag("channel", settings.name())
+                .register(meterRegistry);
+        return executor;
+    }
+
+    private static double queuedTasks(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException ex) {
+            return 0;
+        }
+    }
+
+    private static double activeThreads(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getActiveCount();
+        } catch (IllegalStateException ex) {
+            return 0;
+        }
+    }
+
+    private record ChannelPoolSettings(String name, int corePoolSize, int maxPoolSize, int queueCapacity) {
+    }
+
+    public enum BrokerMode {
+        SIMPLE,
+        RELAY
+    }
+}
@@ -1,14 +1,16 @@
 package com.scutelnic.joinus.controller;
 
 import com.scutelnic.joinus.dto.chat.ChatMessageResponse;
+import com.scutelnic.joinus.dto.chat.ChatSyncResponse;
 import com.scutelnic.joinus.dto.chat.ChatUnreadSummaryResponse;
 import com.scutelnic.joinus.dto.chat.AnnouncementResponse;
 import com.scutelnic.joinus.dto.chat.MessageSeenSummaryResponse;
 import com.scutelnic.joinus.dto.chat.PollResponse;
+import com.scutelnic.joinus.dto.chat.PollVotersPageResponse;
 import com.scutelnic.joinus.dto.chat.SeenUserResponse;
 import com.scutelnic.joinus.service.ActivityChatService;
 import com.scutelnic.joinus.service.ActivityParticipationService;
-import com.scutelnic.joinus.service.ActivityUnreadService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,33 +21,47 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 @RestController
 @RequestMapping("/api")
 public class ActivityChatApiController {
 
     private final ActivityChatService activityChatService;
-    private final ActivityUnreadService activityUnreadService;
     private final ActivityParticipationService participationService;
+    private final CurrentViewerContext viewerContext;
 
     public ActivityChatApiController(ActivityChatService activityChatService,
-                                     ActivityUnreadService activityUnreadService,
-                                     ActivityParticipationService participationService) {
+                                     ActivityParticipationService participationService,
+                                     CurrentViewerContext viewerContext) {
         this.activityChatService = activityChatService;
-        this.activityUnreadService = activityUnreadService;
         this.participationService = participationService;
+        this.viewerContext = viewerContext;
     }
 
     @GetMapping("/activities/{activityId}/messages")
     public List<ChatMessageResponse> getMessages(@PathVariable Long activityId,
                                                  @RequestParam(defaultValue = "50") int limit,
+                                                 @RequestParam(required = false) Long before,
+                                                 @RequestParam(required = false) Long afterSeq,
                                                  Authentication authentication) {
         requireAuthenticated(authentication);
-        return activityChatService.getRecentMessages(activityId, limit, authentication.getName());
+        if (afterSeq != null) {
+            return activityChatService.getMessagesAfterSeq(activityId, afterSeq, limit, authentication.getName());
+        }
+        return activityChatService.getRecentMessages(activityId, limit, before, authentication.getName());
+    }
+
+    @GetMapping("/activities/{activityId}/sync")
+    public ChatSyncResponse sync(@PathVariable Long activityId,
+                                 @RequestParam(required = false)
+                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                 @RequestParam(required = false) Long afterMessageId,
+                                 Authentication authentication) {
+        requireAuthenticated(authentication);
+        return activityChatService.sync(activityId, since, afterMessageId, authentication.getName());
     }
 
     @GetMapping("/messages/{messageId}/seen")
@@ -70,6 +86,17 @@ public class ActivityChatApiController {
         return activityChatService.getPolls(activityId, authentication.getName());
     }
 
+    @GetMapping("/activities/{activityId}/polls/{pollId}/options/{optionId}/voters")
+    public PollVotersPageResponse getPollVoters(@PathVariable Long activityId,
+                                                @PathVariable Long pollId,
+                                                @PathVariable Long optionId,
+                                                @RequestParam(defaultValue = "0") int page,
+                                                @RequestParam(defaultValue = "20") int size,
+                                                Authentication authentication) {
+        requireAuthenticated(authentication);
+        return activityChatService.getPollVoters(activityId, pollId, optionId, page, size, authentication.getName());
+    }
+
     @GetMapping("/activities/{activityId}/announcements")
     public List<AnnouncementResponse> getAnnouncements(@PathVariable Long activityId,
                                                        Authentication authentication) {
@@ -94,10 +121,12 @@ public class ActivityChatApiController {
     @GetMapping("/chat/unread-summary")
     public ChatUnreadSummaryResponse getUnreadSummary(Authentication authentication) {
         requireAuthenticated(authentication);
-        String email = authentication.getName();
 
-        var unreadCounts = activityUnreadService.getUnreadCountsByActivityForUser(email);
-        var pendingParticipationCounts = participationService.getPendingRequestCountsForOrganizerActivities(email);
+        var unreadSnapshot = viewerContext.unreadSnapshot();
+        var unreadCounts = unreadSnapshot.unreadCounts();
+        var pendingParticipationCounts = participationService.getPendingRequestCountsForOrganizerActivities(
+                viewerContext.user().orElse(null)
+        );
 
         var combinedCounts = new LinkedHashMap<Long, Long>();
         unreadCounts.forEach((activityId, count) -> {
@@ -112,12 +141,6 @@ public class ActivityChatApiController {
             combinedCounts.put(activityId, combinedCounts.getOrDefault(activityId, 0L) + count);
         });
 
-        Set<Long> activityIds = new LinkedHashSet<>(combinedCounts.keySet());
-        var latestUnreadByActivity = activityUnreadService
-                .getLatestUnreadMessageByActivityForUser(email, activityIds);
-        var announcementUnreadCounts = activityUnreadService
-            .getUnreadAnnouncementCountsByActivityForUser(email, activityIds);
-
         long unreadGroupsCount = combinedCounts.values().stream()
                 .filter(count -> count != null && count > 0)
                 .count();
@@ -125,8 +148,8 @@ public class ActivityChatApiController {
         return new ChatUnreadSummaryResponse(
                 unreadGroupsCount,
                 combinedCounts,
-            latestUnreadByActivity,
-            announcementUnreadCounts,
+            unreadSnapshot.latestUnreadAt(),
+            unreadSnapshot.unreadAnnouncementCounts(),
             pendingParticipationCounts
         );
     }
@@ -6,21 +6,25 @@ import com.scutelnic.joinus.dto.chat.AnnouncementCreateRequest;
 import com.scutelnic.joinus.dto.chat.AnnouncementResponse;
 import com.scutelnic.joinus.dto.chat.DeliveredEventRequest;
 import com.scutelnic.joinus.dto.chat.MessageReactionEventRequest;
-import com.scutelnic.joinus.dto.chat.MessageReactionUpdateEvent;
+import com.scutelnic.joinus.dto.chat.MessageReactionToggleResult;
 import com.scutelnic.joinus.dto.chat.PollAddOptionRequest;
 import com.scutelnic.joinus.dto.chat.PollCreateRequest;
 import com.scutelnic.joinus.dto.chat.PollDeleteRequest;
 import com.scutelnic.joinus.dto.chat.PollDeleteOptionRequest;
 import com.scutelnic.joinus.dto.chat.PollEditRequest;
 import com.scutelnic.joinus.dto.chat.PollEditOptionRequest;
+import com.scutelnic.joinus.dto.chat.PollOverlayEvent;
 import com.scutelnic.joinus.dto.chat.PollUpdateEvent;
+import com.scutelnic.joinus.dto.chat.PollVoteEvent;
 import com.scutelnic.joinus.dto.chat.PollVoteRequest;
+import com.scutelnic.joinus.dto.chat.SeenBatchUpdateEvent;
 import com.scutelnic.joinus.dto.chat.SeenEventRequest;
-import com.scutelnic.joinus.dto.chat.SeenUpdateEvent;
+import com.scutelnic.joinus.dto.chat.SeenUpToEventRequest;
+import com.scutelnic.joinus.service.ActivityChatEventPublisher;
+import com.scutelnic.joinus.service.ActivityChatReceiptCoalescer;
 import com.scutelnic.joinus.service.ActivityChatService;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -30,12 +34,15 @@ import java.security.Principal;
 public class ActivityChatWebSocketController {
 
     private final ActivityChatService activityChatService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ActivityChatReceiptCoalescer receiptCoalescer;
+    private final ActivityChatEventPublisher eventPublisher;
 
     public ActivityChatWebSocketController(ActivityChatService activityChatService,
-                                           SimpMessagingTemplate messagingTemplate) {
+                                           ActivityChatReceiptCoalescer receiptCoalescer,
+                                           ActivityChatEventPublisher eventPublisher) {
         this.activityChatService = activityChatService;
-        this.messagingTemplate = messagingTemplate;
+        this.receiptCoalescer = receiptCoalescer;
+        this.eventPublisher = eventPublisher;
     }
 
     @MessageMapping("/activities/{activityId}/chat")
@@ -44,7 +51,7 @@ public class ActivityChatWebSocketController {
                             Principal principal) {
         String email = requirePrincipal(principal);
         ChatMessageResponse created = activityChatService.sendMessage(activityId, email, request.content());
-        messagingTemplate.convertAndSend(topicForActivity(activityId), created);
+        eventPublisher.publishMessage(activityId, created);
     }
 
     @MessageMapping("/activities/{activityId}/announcements/create")
@@ -53,7 +60,7 @@ public class ActivityChatWebSocketController {
                                    Principal principal) {
         String email = requirePrincipal(principal);
         AnnouncementResponse created = activityChatService.createAnnouncement(activityId, email, request.content());
-        messagingTemplate.convertAndSend(announcementsTopicForActivity(activityId), created);
+        eventPublisher.publishAnnouncement(activityId, created);
     }
 
     @MessageMapping("/activities/{activityId}/seen")
@@ -61,8 +68,19 @@ public class ActivityChatWebSocketController {
                          SeenEventRequest request,
                          Principal principal) {
         String email = requirePrincipal(principal);
-        SeenUpdateEvent update = activityChatService.markSeen(activityId, request.messageId(), email);
-        messagingTemplate.convertAndSend(statusTopicForActivity(activityId), update);
+        Long userId = activityChatService.resolveReceiptUserId(activityId, request.messageId(), email);
+        receiptCoalescer.enqueueSeen(activityId, userId, request.messageId());
+    }
+
+    @MessageMapping("/activities/{activityId}/seen-up-to")
+    public void markSeenUpTo(@DestinationVariable Long activityId,
+                             SeenUpToEventRequest request,
+                             Principal principal) {
+        String email = requirePrincipal(principal);
+        SeenBatchUpdateEvent update = activityChatService.markSeenUpTo(activityId, request.messageId(), email);
+        if (!update.updates().isEmpty()) {
+            eventPublisher.publishStatus(activityId, update);
+        }
     }
 
     @MessageMapping("/activities/{activityId}/delivered")
@@ -70,8 +88,8 @@ public class ActivityChatWebSocketController {
                               DeliveredEventRequest request,
                               Principal principal) {
         String email = requirePrincipal(principal);
-        SeenUpdateEvent update = activityChatService.markDelivered(activityId, request.messageId(), email);
-        messagingTemplate.convertAndSend(statusTopicForActivity(activityId), update);
+        Long userId = activityChatService.resolveReceiptUserId(activityId, request.messageId(), email);
+        receiptCoalescer.enqueueDelivered(activityId, userId, request.messageId());
     }
 
     @MessageMapping("/activities/{activityId}/reactions")
@@ -79,13 +97,14 @@ public class ActivityChatWebSocketController {
                                MessageReactionEventRequest request,
                                Principal principal) {
         String email = requirePrincipal(principal);
-        MessageReactionUpdateEvent update = activityChatService.toggleReaction(
+        MessageReactionToggleResult result = activityChatService.toggleReaction(
                 activityId,
                 request.messageId(),
                 request.reactionType(),
                 email
         );
-        messagingTemplate.convertAndSend(reactionsTopicForActivity(activityId), update);
+        eventPublisher.publishReaction(activityId, result.update());
+        eventPublisher.publishReactionOverlay(email, result.overlay());
     }
 
     @MessageMapping("/activities/{activityId}/polls/create")
@@ -94,7 +113,7 @@ public class ActivityChatWebSocketController {
                            Principal principal) {
         String email = requirePrincipal(principal);
         PollUpdateEvent update = activityChatService.createPoll(activityId, email, request.question(), request.options());
-        messagingTemplate.convertAndSend(pollsTopicForActivity(activityId), update);
+        eventPublisher.publishPoll(activityId, update);
     }
 
     @MessageMapping("/activities/{activityId}/polls/vote")
@@ -102,8 +121,9 @@ public class ActivityChatWebSocketController {
                          PollVoteRequest request,
                          Principal principal) {
         String email = requirePrincipal(principal);
-        PollUpdateEvent update = activityChatService.votePoll(activityId, request.pollId(), request.optionId(), email);
-        messagingTemplate.convertAndSend(pollsTopicForActivity(activityId), update);
+        PollVoteEvent update = activityChatService.votePoll(activityId, request.pollId(), request.optionId(), email);
+        eventPublisher.publishPollVote(activityId, update);
+        eventPublisher.publishPollOverlay(email, new PollOverlayEvent(activityId, update.pollId(), update.optionId()));
     }
 
     @MessageMapping("/activities/{activityId}/polls/edit")
@@ -112,7 +132,7 @@ public class ActivityChatWebSocketController {
                          Principal principal) {
         String email = requirePrincipal(principal);
         PollUpdateEvent update = activityChatService.editPoll(activityId, request.pollId(), request.question(), email);
-        messagingTemplate.convertAndSend(pollsTopicForActivity(activityId), update);
+        eventPublisher.publishPoll(activityId, update);
     }
 
     @MessageMapping("/activities/{activityId}/polls/delete")
@@ -121,7 +141,7 @@ public class ActivityChatWebSocketController {
                            Principal principal) {
         String email = requirePrincipal(principal);
         PollUpdateEvent update = activityChatService.deletePoll(activityId, request.pollId(), email);
-        messagingTemplate.convertAndSend(pollsTopicForActivity(activityId), update);
+        eventPublisher.publishPoll(activityId, update);
     }
 
     @MessageMapping("/activities/{activityId}/polls/add-option")
@@ -130,7 +150,7 @@ public class ActivityChatWebSocketController {
                               Principal principal) {
         String email = requirePrincipal(principal);
         PollUpdateEvent update = activityChatService.addPollOption(activityId, request.pollId(), request.optionText(), email);
-        messagingTemplate.convertAndSend(pollsTopicForActivity(activityId), update);
+        eventPublisher.publishPoll(activityId, update);
     }
 
     @MessageMapping("/activities/{activityId}/polls/edit-option")
@@ -145,7 +165,7 @@ public class ActivityChatWebSocketController {
                 request.optionText(),
                 email
         );
-        messagingTemplate.convertAndSend(pollsTopicForActivity(activityId), update);
+        eventPublisher.publishPoll(activityId, update);
     }
 
     @MessageMapping("/activities/{activityId}/polls/delete-option")
@@ -159,7 +179,7 @@ public class ActivityChatWebSocketController {
                 request.optionId(),
                 email
         );
-        messagingTemplate.convertAndSend(pollsTopicForActivity(activityId), update);
+        eventPublisher.publishPoll(activityId, update);
     }
 
     private String requirePrincipal(Principal principal) {
@@ -168,24 +188,4 @@ public class ActivityChatWebSocketController {
         }
         return principal.getName();
     }
-
-    private String topicForActivity(Long activityId) {
-        return "/topic/activities/" + activityId;
-    }
-
-    private String statusTopicForActivity(Long activityId) {
-        return "/topic/activities/" + activityId + "/status";
-    }
-
-    private String reactionsTopicForActivity(Long activityId) {
-        return "/topic/activities/" + activityId + "/reactions";
-    }
-
-    private String pollsTopicForActivity(Long activityId) {
-        return "/topic/activities/" + activityId + "/polls";
-    }
-
-    private String announcementsTopicForActivity(Long activityId) {
-        return "/topic/activities/" + activityId + "/announcements";
-    }
 }
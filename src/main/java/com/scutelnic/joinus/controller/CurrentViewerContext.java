@@ -0,0 +1,53 @@
+package com.scutelnic.joinus.controller;
+
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.service.ActivityUnreadService;
+import com.scutelnic.joinus.service.UserService;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+@Component
+@RequestScope
+public class CurrentViewerContext {
+
+    private final UserService userService;
+    private final ActivityUnreadService activityUnreadService;
+    private Optional<User> user;
+    private ActivityUnreadService.UnreadSnapshot unreadSnapshot;
+
+    public CurrentViewerContext(UserService userService,
+                                ActivityUnreadService activityUnreadService) {
+        this.userService = userService;
+        this.activityUnreadService = activityUnreadService;
+    }
+
+    public Optional<User> user() {
+        if (user == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            user = isAuthenticated(authentication)
+                    ? userService.findByEmail(authentication.getName())
+                    : Optional.empty();
+        }
+        return user;
+    }
+
+    public ActivityUnreadService.UnreadSnapshot unreadSnapshot() {
+        if (unreadSnapshot == null) {
+            unreadSnapshot = user()
+                    .map(activityUnreadService::getUnreadSnapshot)
+                    .orElse(ActivityUnreadService.UnreadSnapshot.EMPTY);
+        }
+        return unreadSnapshot;
+    }
+
+    private boolean isAuthenticated(Authentication authentication) {
+        return authentication != null
+                && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+}
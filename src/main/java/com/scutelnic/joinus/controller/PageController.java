@@ -16,8 +16,8 @@ import com.scutelnic.joinus.service.UserService;
 import com.scutelnic.joinus.repository.UserRepository;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -44,29 +44,29 @@ public class PageController {
 
     private final ActivityService activityService;
     private final ActivityChatService activityChatService;
-    private final ActivityUnreadService activityUnreadService;
     private final ActivityParticipationService participationService;
     private final UserRepository userRepository;
     private final UserService userService;
     private final UserReviewService userReviewService;
     private final CloudinaryService cloudinaryService;
+    private final CurrentViewerContext viewerContext;
 
     public PageController(ActivityService activityService,
                           ActivityChatService activityChatService,
-                          ActivityUnreadService activityUnreadService,
                           ActivityParticipationService participationService,
                           UserRepository userRepository,
                           UserService userService,
                           UserReviewService userReviewService,
-                          CloudinaryService cloudinaryService) {
+                          CloudinaryService cloudinaryService,
+                          CurrentViewerContext viewerContext) {
         this.activityService = activityService;
         this.activityChatService = activityChatService;
-        this.activityUnreadService = activityUnreadService;
         this.participationService = participationService;
         this.userRepository = userRepository;
         this.userService = userService;
         this.userReviewService = userReviewService;
         this.cloudinaryService = cloudinaryService;
+        this.viewerContext = viewerContext;
     }
 
     @GetMapping({"/", "/index"})
@@ -111,7 +111,7 @@ public class PageController {
             return "redirect:/?login";
         }
 
-        User user = userService.findByEmail(authentication.getName())
+        User user = viewerContext.user()
                 .orElseThrow(() -> new IllegalArgumentException("Utilizatorul nu exista."));
         populateOwnProfileModel(model, user, false);
         return "profile";
@@ -127,7 +127,7 @@ public class PageController {
             return "redirect:/?login";
         }
 
-        User user = userService.findByEmail(authentication.getName())
+        User user = viewerContext.user()
                 .orElseThrow(() -> new IllegalArgumentException("Utilizatorul nu exista."));
         boolean mustCompleteBirthDate = user.getBirthDate() == null
                 && (completeProfile != null || birthDateRequired != null || errorBirthDateRequired != null);
@@ -196,22 +196,14 @@ public class PageController {
             return "calendar";
         }
 
-        User user = userService.findByEmail(authentication.getName()).orElse(null);
+        User user = viewerContext.user().orElse(null);
         if (user == null) {
             model.addAttribute("calendarActivities", List.of());
             model.addAttribute("isAuthenticatedUser", true);
             return "calendar";
         }
 
-        List<com.scutelnic.joinus.entity.Activity> authoredActivities = activityService.getByCreator(user.getId());
-        List<com.scutelnic.joinus.entity.Activity> approvedActivities = participationService
-            .getApprovedActivitiesForUser(authentication.getName());
-
-        List<com.scutelnic.joinus.entity.Activity> combined = new ArrayList<>(authoredActivities.size() + approvedActivities.size());
-        combined.addAll(authoredActivities);
-        combined.addAll(approvedActivities);
-
-        List<com.scutelnic.joinus.entity.Activity> calendarActivities = combined.stream()
+        List<com.scutelnic.joinus.entity.Activity> calendarActivities = activityService.getAccessibleActivities(user.getId()).stream()
             .filter(activity -> activity != null && activity.getId() != null && activity.getDate() != null)
             .collect(java.util.stream.Collectors.toMap(
                 com.scutelnic.joinus.entity.Activity::getId,
@@ -272,7 +264,7 @@ public class PageController {
         }
 
         if (isAuthenticated(authentication)) {
-            userService.findByEmail(authentication.getName()).ifPresent(currentUser -> {
+            viewerContext.user().ifPresent(currentUser -> {
                 boolean ownProfile = currentUser.getId().equals(user.getId());
                 boolean alreadyReviewed = !ownProfile && userReviewService.hasReviewed(currentUser.getId(), user.getId());
 
@@ -325,61 +317,34 @@ public class PageController {
                              @RequestParam(defaultValue = "0") int page,
                              @RequestParam(defaultValue = "12") int size,
                              @RequestParam(required = false) String q,
+                             @RequestParam(defaultValue = "relevance") String sort,
                              @RequestParam(defaultValue = "false") boolean openCreate) {
         int safePage = Math.max(page, 0);
         int safeSize = Math.max(1, Math.min(size, 30));
         String normalizedQuery = normalizeActivityQuery(q);
         boolean hasSearchQuery = !normalizedQuery.isBlank();
+        boolean newestFirst = "recent".equalsIgnoreCase(sort);
 
         Page<com.scutelnic.joinus.entity.Activity> activityPage;
-        if (isAuthenticated(authentication)) {
-            List<com.scutelnic.joinus.entity.Activity> allActivities = new ArrayList<>(activityService.getAll());
-
-            if (hasSearchQuery) {
-                allActivities = allActivities.stream()
-                        .filter(activity -> activityMatchesSearch(activity, normalizedQuery))
-                        .toList();
+        if (hasSearchQuery) {
+            activityPage = activityService.search(normalizedQuery, newestFirst, safePage, safeSize);
+            if (activityPage.getTotalPages() > 0 && safePage >= activityPage.getTotalPages()) {
+                activityPage = activityService.search(normalizedQuery, newestFirst, activityPage.getTotalPages() - 1, safeSize);
             }
-
-            allActivities.sort((left, right) -> Comparator.<java.time.LocalDateTime>nullsLast(Comparator.reverseOrder())
-                    .compare(left.getCreatedAt(), right.getCreatedAt()));
-
-            int total = allActivities.size();
-            int totalPages = total == 0 ? 0 : (int) Math.ceil((double) total / safeSize);
-            int effectivePage = totalPages == 0 ? 0 : Math.min(safePage, totalPages - 1);
-
-            int fromIndex = Math.min(effectivePage * safeSize, total);
-            int toIndex = Math.min(fromIndex + safeSize, allActivities.size());
-            List<com.scutelnic.joinus.entity.Activity> currentSlice = allActivities.subList(fromIndex, toIndex);
-            activityPage = new PageImpl<>(currentSlice, PageRequest.of(effectivePage, safeSize), total);
         } else {
-            if (hasSearchQuery) {
-                List<com.scutelnic.joinus.entity.Activity> allActivities = new ArrayList<>(activityService.getAll());
-                allActivities = allActivities.stream()
-                        .filter(activity -> activityMatchesSearch(activity, normalizedQuery))
-                        .sorted((left, right) -> Comparator.<java.time.LocalDateTime>nullsLast(Comparator.reverseOrder())
-                                .compare(left.getCreatedAt(), right.getCreatedAt()))
-                        .toList();
-
-                int total = allActivities.size();
-                int totalPages = total == 0 ? 0 : (int) Math.ceil((double) total / safeSize);
-                int effectivePage = totalPages == 0 ? 0 : Math.min(safePage, totalPages - 1);
-
-                int fromIndex = Math.min(effectivePage * safeSize, total);
-                int toIndex = Math.min(fromIndex + safeSize, allActivities.size());
-                List<com.scutelnic.joinus.entity.Activity> currentSlice = allActivities.subList(fromIndex, toIndex);
-                activityPage = new PageImpl<>(currentSlice, PageRequest.of(effectivePage, safeSize), total);
-            } else {
-                activityPage = activityService.getPage(safePage, safeSize);
-                if (activityPage.getTotalPages() > 0 && safePage >= activityPage.getTotalPages()) {
-                    int lastPage = activityPage.getTotalPages() - 1;
-                    activityPage = activityService.getPage(lastPage, safeSize);
-                }
+            activityPage = activityService.getPage(safePage, safeSize);
+            if (activityPage.getTotalPages() > 0 && safePage >= activityPage.getTotalPages()) {
+                int lastPage = activityPage.getTotalPages() - 1;
+                activityPage = activityService.getPage(lastPage, safeSize);
             }
         }
 
         model.addAttribute("activities", activityPage.getContent());
         model.addAttribute("activitySearchQuery", q == null ? "" : q.trim());
+        model.addAttribute("activitySearchSort", newestFirst ? "recent" : "relevance");
+        model.addAttribute("activityNextCursor", !hasSearchQuery && activityPage.hasNext()
+                ? activityPage.getContent().get(activityPage.getNumberOfElements() - 1)
+                : null);
         model.addAttribute("activityPage", activityPage);
         model.addAttribute("currentPage", activityPage.getNumber());
         model.addAttribute("pageSize", activityPage.getSize());
@@ -405,6 +370,19 @@ public class PageController {
         return "activities";
     }
 
+    @GetMapping("/activities/more")
+    public String moreActivities(Model model,
+                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) java.time.LocalDateTime beforeCreatedAt,
+                                 @RequestParam Long beforeId,
+                                 @RequestParam(defaultValue = "12") int size) {
+        Slice<com.scutelnic.joinus.entity.Activity> slice = activityService.getPageBefore(beforeCreatedAt, beforeId, size);
+        model.addAttribute("activities", slice.getContent());
+        model.addAttribute("activityNextCursor", slice.hasNext()
+                ? slice.getContent().get(slice.getNumberOfElements() - 1)
+                : null);
+        return "activities :: activityCards";
+    }
+
     @GetMapping("/activities/{id}")
     public String activityDetail(@PathVariable Long id, Model model, Authentication authentication, HttpSession session) {
         return activityService.getById(id)
@@ -422,7 +400,7 @@ public class PageController {
                     String participationMessageType = null;
                     if (authentication != null && authentication.isAuthenticated()) {
                         String email = authentication.getName();
-                        userRepository.findByEmail(email)
+                        viewerContext.user()
                                 .ifPresent(user -> model.addAttribute("currentUserId", user.getId()));
                         boolean canAccessChat = participationService.canAccessChat(id, email);
                         boolean isCreator = participationService.isCreator(id, email);
@@ -489,21 +467,13 @@ public class PageController {
             return List.of();
         }
 
-        User user = userService.findByEmail(authentication.getName()).orElse(null);
+        User user = viewerContext.user().orElse(null);
         if (user == null) {
             return List.of();
         }
 
-        List<com.scutelnic.joinus.entity.Activity> authoredActivities = activityService.getByCreator(user.getId());
-        List<com.scutelnic.joinus.entity.Activity> approvedActivities =
-                participationService.getApprovedActivitiesForUser(authentication.getName());
-
-        List<com.scutelnic.joinus.entity.Activity> combined = new ArrayList<>(authoredActivities.size() + approvedActivities.size());
-        combined.addAll(authoredActivities);
-        combined.addAll(approvedActivities);
-
         Map<Long, com.scutelnic.joinus.entity.Activity> uniqueById = new LinkedHashMap<>();
-        for (com.scutelnic.joinus.entity.Activity activity : combined) {
+        for (com.scutelnic.joinus.entity.Activity activity : activityService.getAccessibleActivities(user.getId())) {
             if (activity == null || activity.getId() == null || activity.getId().equals(currentActivityId)) {
                 continue;
             }
@@ -511,12 +481,9 @@ public class PageController {
         }
 
         List<com.scutelnic.joinus.entity.Activity> sidebarActivities = new ArrayList<>(uniqueById.values());
-        List<Long> sidebarIds = sidebarActivities.stream()
-                .map(com.scutelnic.joinus.entity.Activity::getId)
-                .toList();
-        Map<Long, Long> unreadCounts = activityUnreadService.getUnreadCountsByActivityForUser(authentication.getName(), sidebarIds);
-        Map<Long, java.time.LocalDateTime> latestUnreadByActivity = activityUnreadService
-                .getLatestUnreadMessageByActivityForUser(authentication.getName(), sidebarIds);
+        ActivityUnreadService.UnreadSnapshot unreadSnapshot = viewerContext.unreadSnapshot();
+        Map<Long, Long> unreadCounts = unreadSnapshot.unreadCounts();
+        Map<Long, java.time.LocalDateTime> latestUnreadByActivity = unreadSnapshot.latestUnreadAt();
 
         return sidebarActivities.stream()
                 .sorted((left, right) -> {
@@ -556,25 +523,6 @@ public class PageController {
         return query.trim().toLowerCase(java.util.Locale.ROOT);
     }
 
-    private boolean activityMatchesSearch(com.scutelnic.joinus.entity.Activity activity, String normalizedQuery) {
-        if (activity == null || normalizedQuery == null || normalizedQuery.isBlank()) {
-            return true;
-        }
-
-        String haystack = String.join(" ",
-                safeText(activity.getTitle()),
-                safeText(activity.getCategory()),
-                safeText(activity.getLocation()),
-                safeText(activity.getDescription()))
-                .toLowerCase(java.util.Locale.ROOT);
-
-        return haystack.contains(normalizedQuery);
-    }
-
-    private String safeText(String value) {
-        return value == null ? "" : value;
-    }
-
     private String resolveAvatarUrl(User user) {
         if (user.getAvatarUrl() == null || user.getAvatarUrl().isBlank()) {
             return null;
@@ -6,6 +6,7 @@ import java.util.List;
 public record ChatMessageResponse(
         Long id,
         Long activityId,
+        Long seq,
         Long senderId,
         String senderName,
         String content,
@@ -0,0 +1,17 @@
+package com.scutelnic.joinus.dto.chat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ChatSyncResponse(
+        LocalDateTime cursor,
+        boolean truncated,
+        Long counterResumeId,
+        List<ChatMessageResponse> messages,
+        List<SeenUpdateEvent> receiptUpdates,
+        List<MessageReactionSyncResponse> reactionUpdates,
+        List<PollResponse> polls,
+        List<Long> pollIds,
+        List<AnnouncementResponse> announcements
+) {
+}
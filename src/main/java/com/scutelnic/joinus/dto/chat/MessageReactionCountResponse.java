@@ -0,0 +1,8 @@
+package com.scutelnic.joinus.dto.chat;
+
+public record MessageReactionCountResponse(
+        String reactionType,
+        String emoji,
+        long count
+) {
+}
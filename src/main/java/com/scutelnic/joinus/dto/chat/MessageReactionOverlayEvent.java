@@ -0,0 +1,8 @@
+package com.scutelnic.joinus.dto.chat;
+
+public record MessageReactionOverlayEvent(
+        Long activityId,
+        Long messageId,
+        String currentUserReactionType
+) {
+}
@@ -0,0 +1,10 @@
+package com.scutelnic.joinus.dto.chat;
+
+import java.util.List;
+
+public record MessageReactionSyncResponse(
+        Long messageId,
+        List<MessageReactionSummaryResponse> reactions,
+        String currentUserReactionType
+) {
+}
@@ -0,0 +1,7 @@
+package com.scutelnic.joinus.dto.chat;
+
+public record MessageReactionToggleResult(
+        MessageReactionUpdateEvent update,
+        MessageReactionOverlayEvent overlay
+) {
+}
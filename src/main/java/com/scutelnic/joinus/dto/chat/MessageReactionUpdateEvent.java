@@ -4,8 +4,6 @@ import java.util.List;
 
 public record MessageReactionUpdateEvent(
         Long messageId,
-        List<MessageReactionSummaryResponse> reactions,
-        Long actorUserId,
-        String actorReactionType
+        List<MessageReactionCountResponse> reactions
 ) {
 }
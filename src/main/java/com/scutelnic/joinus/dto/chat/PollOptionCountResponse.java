@@ -0,0 +1,4 @@
+package com.scutelnic.joinus.dto.chat;
+
+public record PollOptionCountResponse(Long optionId, long voteCount) {
+}
@@ -0,0 +1,8 @@
+package com.scutelnic.joinus.dto.chat;
+
+public record PollOverlayEvent(
+        Long activityId,
+        Long pollId,
+        Long currentUserOptionId
+) {
+}
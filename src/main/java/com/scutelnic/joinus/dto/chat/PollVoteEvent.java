@@ -0,0 +1,12 @@
+package com.scutelnic.joinus.dto.chat;
+
+import java.util.List;
+
+public record PollVoteEvent(
+        String action,
+        Long pollId,
+        Long optionId,
+        Long previousOptionId,
+        List<PollOptionCountResponse> counts
+) {
+}
@@ -0,0 +1,12 @@
+package com.scutelnic.joinus.dto.chat;
+
+import java.util.List;
+
+public record PollVotersPageResponse(
+        Long pollId,
+        Long optionId,
+        int page,
+        boolean hasMore,
+        List<PollVoterResponse> voters
+) {
+}
@@ -0,0 +1,6 @@
+package com.scutelnic.joinus.dto.chat;
+
+import java.util.List;
+
+public record SeenBatchUpdateEvent(Long activityId, List<SeenUpdateEvent> updates) {
+}
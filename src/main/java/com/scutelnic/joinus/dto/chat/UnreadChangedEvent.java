@@ -0,0 +1,4 @@
+package com.scutelnic.joinus.dto.chat;
+
+public record UnreadChangedEvent(Long activityId, String reason) {
+}
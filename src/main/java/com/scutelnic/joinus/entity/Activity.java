@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -14,7 +15,13 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "activities")
+@Table(
+        name = "activities",
+        indexes = {
+                @Index(name = "idx_activities_creator", columnList = "creator_id"),
+                @Index(name = "idx_activities_created_id", columnList = "created_at desc, id desc")
+        }
+)
 public class Activity {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -57,6 +64,9 @@ public class Activity {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "last_message_seq", insertable = false, updatable = false)
+    private Long lastMessageSeq;
+
     public Activity() {
     }
 
@@ -191,4 +201,8 @@ public class Activity {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public Long getLastMessageSeq() {
+        return lastMessageSeq;
+    }
 }
@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.EnumType;
@@ -16,7 +17,15 @@ import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "activity_messages")
+@Table(
+        name = "activity_messages",
+        indexes = {
+                @Index(name = "idx_activity_messages_activity_id_id", columnList = "activity_id, id"),
+                @Index(name = "idx_activity_messages_activity_created_id", columnList = "activity_id, created_at desc, id desc"),
+                @Index(name = "uq_activity_messages_activity_seq", columnList = "activity_id, seq", unique = true),
+                @Index(name = "idx_activity_messages_activity_counters_updated", columnList = "activity_id, counters_updated_at")
+        }
+)
 public class ActivityMessage {
 
     @Id
@@ -41,6 +50,18 @@ public class ActivityMessage {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "delivered_count")
+    private Long deliveredCount;
+
+    @Column(name = "seen_count")
+    private Long seenCount;
+
+    @Column(name = "seq")
+    private Long seq;
+
+    @Column(name = "counters_updated_at", insertable = false, updatable = false)
+    private LocalDateTime countersUpdatedAt;
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -49,6 +70,12 @@ public class ActivityMessage {
         if (messageType == null) {
             messageType = ActivityMessageType.CHAT;
         }
+        if (deliveredCount == null) {
+            deliveredCount = 0L;
+        }
+        if (seenCount == null) {
+            seenCount = 0L;
+        }
     }
 
     public Long getId() {
@@ -98,4 +125,32 @@ public class ActivityMessage {
     public void setMessageType(ActivityMessageType messageType) {
         this.messageType = messageType;
     }
+
+    public Long getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public void setDeliveredCount(Long deliveredCount) {
+        this.deliveredCount = deliveredCount;
+    }
+
+    public Long getSeenCount() {
+        return seenCount;
+    }
+
+    public void setSeenCount(Long seenCount) {
+        this.seenCount = seenCount;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public LocalDateTime getCountersUpdatedAt() {
+        return countersUpdatedAt;
+    }
 }
@@ -2,6 +2,8 @@ package com.scutelnic.joinus.entity;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -11,14 +13,12 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
-import java.time.LocalDateTime;
-
 @Entity
 @Table(
-        name = "activity_message_seen",
-        uniqueConstraints = @UniqueConstraint(name = "uq_message_seen_user", columnNames = {"message_id", "user_id"})
+        name = "activity_message_reaction_counts",
+        uniqueConstraints = @UniqueConstraint(name = "uq_message_reaction_count_type", columnNames = {"message_id", "reaction_type"})
 )
-public class ActivityMessageSeen {
+public class ActivityMessageReactionCount {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,12 +28,12 @@ public class ActivityMessageSeen {
     @JoinColumn(name = "message_id", nullable = false)
     private ActivityMessage message;
 
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false)
-    private User user;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reaction_type", nullable = false, length = 16)
+    private ActivityMessageReactionType reactionType;
 
     @Column(nullable = false)
-    private LocalDateTime seenAt;
+    private Long total;
 
     public Long getId() {
         return id;
@@ -51,19 +51,19 @@ public class ActivityMessageSeen {
         this.message = message;
     }
 
-    public User getUser() {
-        return user;
+    public ActivityMessageReactionType getReactionType() {
+        return reactionType;
     }
 
-    public void setUser(User user) {
-        this.user = user;
+    public void setReactionType(ActivityMessageReactionType reactionType) {
+        this.reactionType = reactionType;
     }
 
-    public LocalDateTime getSeenAt() {
-        return seenAt;
+    public Long getTotal() {
+        return total;
     }
 
-    public void setSeenAt(LocalDateTime seenAt) {
-        this.seenAt = seenAt;
+    public void setTotal(Long total) {
+        this.total = total;
     }
 }
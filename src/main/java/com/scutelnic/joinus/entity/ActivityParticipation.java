@@ -8,6 +8,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -19,7 +20,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(
         name = "activity_participations",
-        uniqueConstraints = @UniqueConstraint(name = "uq_activity_participation_user", columnNames = {"activity_id", "user_id"})
+        uniqueConstraints = @UniqueConstraint(name = "uq_activity_participation_user", columnNames = {"activity_id", "user_id"}),
+        indexes = @Index(name = "idx_activity_participations_user_status", columnList = "user_id, status")
 )
 public class ActivityParticipation {
 
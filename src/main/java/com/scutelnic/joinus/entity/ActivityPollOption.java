@@ -28,6 +28,9 @@ public class ActivityPollOption {
     @Column(nullable = false)
     private int position;
 
+    @Column(name = "vote_count", insertable = false, updatable = false)
+    private Long voteCount;
+
     public Long getId() {
         return id;
     }
@@ -59,4 +62,8 @@ public class ActivityPollOption {
     public void setPosition(int position) {
         this.position = position;
     }
+
+    public Long getVoteCount() {
+        return voteCount;
+    }
 }
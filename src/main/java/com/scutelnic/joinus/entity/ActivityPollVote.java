@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(
         name = "activity_poll_votes",
-        uniqueConstraints = @UniqueConstraint(name = "uq_poll_vote_user", columnNames = {"poll_id", "voter_id"})
+        uniqueConstraints = @UniqueConstraint(name = "uq_poll_vote_user", columnNames = {"poll_id", "voter_id"}),
+        indexes = @Index(name = "idx_poll_votes_option_voted_at", columnList = "option_id, voted_at")
 )
 public class ActivityPollVote {
 
@@ -0,0 +1,91 @@
+package com.scutelnic.joinus.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "activity_read_watermarks",
+        uniqueConstraints = @UniqueConstraint(name = "uq_read_watermark_activity_user", columnNames = {"activity_id", "user_id"})
+)
+public class ActivityReadWatermark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "activity_id", nullable = false)
+    private Activity activity;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "last_seen_message_id", nullable = false)
+    private Long lastSeenMessageId;
+
+    @Column(name = "last_seen_announcement_id", nullable = false)
+    private Long lastSeenAnnouncementId;
+
+    @Column(nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Activity getActivity() {
+        return activity;
+    }
+
+    public void setActivity(Activity activity) {
+        this.activity = activity;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Long getLastSeenMessageId() {
+        return lastSeenMessageId;
+    }
+
+    public void setLastSeenMessageId(Long lastSeenMessageId) {
+        this.lastSeenMessageId = lastSeenMessageId;
+    }
+
+    public Long getLastSeenAnnouncementId() {
+        return lastSeenAnnouncementId;
+    }
+
+    public void setLastSeenAnnouncementId(Long lastSeenAnnouncementId) {
+        this.lastSeenAnnouncementId = lastSeenAnnouncementId;
+    }
+
+    public LocalDateTime getLastSeenAt() {
+        return lastSeenAt;
+    }
+
+    public void setLastSeenAt(LocalDateTime lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+}
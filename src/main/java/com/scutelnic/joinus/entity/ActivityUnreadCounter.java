@@ -0,0 +1,93 @@
+package com.scutelnic.joinus.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(
+        name = "activity_unread_counters",
+        uniqueConstraints = @UniqueConstraint(name = "uq_unread_counter_user_activity", columnNames = {"user_id", "activity_id"}),
+        indexes = @Index(name = "idx_unread_counters_activity", columnList = "activity_id")
+)
+public class ActivityUnreadCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "activity_id", nullable = false)
+    private Activity activity;
+
+    @Column(name = "unread_chat", nullable = false)
+    private Long unreadChat;
+
+    @Column(name = "unread_announcements", nullable = false)
+    private Long unreadAnnouncements;
+
+    @Column(name = "latest_at")
+    private LocalDateTime latestAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Activity getActivity() {
+        return activity;
+    }
+
+    public void setActivity(Activity activity) {
+        this.activity = activity;
+    }
+
+    public Long getUnreadChat() {
+        return unreadChat;
+    }
+
+    public void setUnreadChat(Long unreadChat) {
+        this.unreadChat = unreadChat;
+    }
+
+    public Long getUnreadAnnouncements() {
+        return unreadAnnouncements;
+    }
+
+    public void setUnreadAnnouncements(Long unreadAnnouncements) {
+        this.unreadAnnouncements = unreadAnnouncements;
+    }
+
+    public LocalDateTime getLatestAt() {
+        return latestAt;
+    }
+
+    public void setLatestAt(LocalDateTime latestAt) {
+        this.latestAt = latestAt;
+    }
+}
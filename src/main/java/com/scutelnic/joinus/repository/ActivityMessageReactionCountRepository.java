@@ -0,0 +1,85 @@
+package com.scutelnic.joinus.repository;
+
+import com.scutelnic.joinus.entity.ActivityMessageReactionCount;
+import com.scutelnic.joinus.entity.ActivityMessageReactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ActivityMessageReactionCountRepository extends JpaRepository<ActivityMessageReactionCount, Long> {
+
+    @Query("""
+            select c.message.id as messageId, c.reactionType as reactionType, c.total as total
+            from ActivityMessageReactionCount c
+            where c.message.id in :messageIds
+              and c.total > 0
+            """)
+    List<MessageReactionCountView> findCountsByMessageIds(@Param("messageIds") List<Long> messageIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into activity_message_reaction_counts (message_id, reaction_type, total)
+            values (:messageId, :reactionType, greatest(:delta, 0))
+            on conflict on constraint uq_message_reaction_count_type
+            do update set total = greatest(activity_message_reaction_counts.total + :delta, 0)
+            """, nativeQuery = true)
+    int adjustTotal(@Param("messageId") Long messageId,
+                    @Param("reactionType") String reactionType,
+                    @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with reaction_totals as (
+                select r.message_id, r.reaction_type, count(*) as total
+                from activity_message_reactions r
+                join activity_messages m on m.id = r.message_id
+                where m.created_at >= cast(:since as timestamp)
+                group by r.message_id, r.reaction_type
+            )
+            insert into activity_message_reaction_counts (message_id, reaction_type, total)
+            select t.message_id, t.reaction_type, t.total
+            from reaction_totals t
+            on conflict on constraint uq_message_reaction_count_type
+            do update set total = excluded.total
+            where activity_message_reaction_counts.total is distinct from excluded.total
+            """, nativeQuery = true)
+    int reconcileTotalsSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update activity_message_reaction_counts c
+            set total = 0
+            from activity_messages m
+            where m.id = c.message_id
+              and m.created_at >= cast(:since as timestamp)
+              and c.total <> 0
+              and not exists (
+                  select 1
+                  from activity_message_reactions r
+                  where r.message_id = c.message_id
+                    and r.reaction_type = c.reaction_type
+              )
+            """, nativeQuery = true)
+    int resetOrphanedTotalsSince(@Param("since") LocalDateTime since);
+
+    @Query(value = "select exists (select 1 from activity_message_reaction_counts)", nativeQuery = true)
+    boolean existsAny();
+
+    long deleteByMessageActivityId(Long activityId);
+
+    interface MessageReactionCountView {
+        Long getMessageId();
+
+        ActivityMessageReactionType getReactionType();
+
+        long getTotal();
+    }
+}
@@ -1,35 +1,36 @@
 package com.scutelnic.joinus.repository;
 
 import com.scutelnic.joinus.entity.ActivityMessageReaction;
-import com.scutelnic.joinus.entity.ActivityMessageReactionType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface ActivityMessageReactionRepository extends JpaRepository<ActivityMessageReaction, Long> {
 
-    Optional<ActivityMessageReaction> findByMessageIdAndUserId(Long messageId, Long userId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ActivityMessageReaction> findForUpdateByMessageIdAndUserId(Long messageId, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into activity_message_reactions (message_id, user_id, reaction_type, reacted_at)
+            values (:messageId, :userId, :reactionType, :reactedAt)
+            on conflict on constraint uq_message_reaction_user do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("messageId") Long messageId,
+                       @Param("userId") Long userId,
+                       @Param("reactionType") String reactionType,
+                       @Param("reactedAt") LocalDateTime reactedAt);
 
     List<ActivityMessageReaction> findByMessageIdInAndUserId(List<Long> messageIds, Long userId);
 
-    @Query("""
-            select r.message.id as messageId, r.reactionType as reactionType, count(r) as total
-            from ActivityMessageReaction r
-            where r.message.id in :messageIds
-            group by r.message.id, r.reactionType
-            """)
-    List<MessageReactionCountView> countGroupedByMessageIds(@Param("messageIds") List<Long> messageIds);
-
     long deleteByMessageActivityId(Long activityId);
-
-    interface MessageReactionCountView {
-        Long getMessageId();
-
-        ActivityMessageReactionType getReactionType();
-
-        long getTotal();
-    }
 }
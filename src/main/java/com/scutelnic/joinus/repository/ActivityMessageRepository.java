@@ -5,8 +5,10 @@ import com.scutelnic.joinus.entity.ActivityMessageType;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.time.LocalDateTime;
@@ -14,19 +16,55 @@ import java.util.Optional;
 
 public interface ActivityMessageRepository extends JpaRepository<ActivityMessage, Long> {
 
-    interface ActivityUnreadSummaryProjection {
-        Long getActivityId();
+    interface MessageReceiptCountsProjection {
+        Long getMessageId();
 
-        Long getUnreadCount();
+        Long getDeliveredCount();
 
-        LocalDateTime getLatestMessageAt();
+        Long getSeenCount();
     }
 
     @EntityGraph(attributePaths = {"sender", "activity"})
     Optional<ActivityMessage> findWithSenderAndActivityById(Long id);
 
     @EntityGraph(attributePaths = {"sender"})
-    List<ActivityMessage> findByActivityIdOrderByCreatedAtDescIdDesc(Long activityId, Pageable pageable);
+    @Query("""
+            select m
+            from ActivityMessage m
+            where m.activity.id = :activityId
+              and coalesce(m.messageType, com.scutelnic.joinus.entity.ActivityMessageType.CHAT)
+                  = com.scutelnic.joinus.entity.ActivityMessageType.CHAT
+            order by m.createdAt desc, m.id desc
+            """)
+    List<ActivityMessage> findChatPageByActivityId(@Param("activityId") Long activityId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"sender"})
+    @Query("""
+            select m
+            from ActivityMessage m
+            where m.activity.id = :activityId
+              and coalesce(m.messageType, com.scutelnic.joinus.entity.ActivityMessageType.CHAT)
+                  = com.scutelnic.joinus.entity.ActivityMessageType.CHAT
+              and (m.createdAt < :beforeCreatedAt
+                   or (m.createdAt = :beforeCreatedAt and m.id < :beforeId))
+            order by m.createdAt desc, m.id desc
+            """)
+    List<ActivityMessage> findChatPageByActivityIdBeforeCursor(@Param("activityId") Long activityId,
+                                                               @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                               @Param("beforeId") Long beforeId,
+                                                               Pageable pageable);
+
+    @EntityGraph(attributePaths = {"sender"})
+    @Query("""
+            select m
+            from ActivityMessage m
+            where m.activity.id = :activityId
+              and m.seq > :afterSeq
+            order by m.seq asc
+            """)
+    List<ActivityMessage> findChatPageByActivityIdAfterSeq(@Param("activityId") Long activityId,
+                                                           @Param("afterSeq") Long afterSeq,
+                                                           Pageable pageable);
 
     @EntityGraph(attributePaths = {"sender"})
     List<ActivityMessage> findByActivityIdAndMessageTypeOrderByCreatedAtDescIdDesc(Long activityId,
@@ -42,42 +80,233 @@ public interface ActivityMessageRepository extends JpaRepository<ActivityMessage
     @EntityGraph(attributePaths = {"sender", "activity"})
     List<ActivityMessage> findByActivityIdAndIdIn(Long activityId, List<Long> ids);
 
-        @Query(value = """
-                        select m.activity_id as activityId,
-                                     count(*) as unreadCount,
-                                     max(m.created_at) as latestMessageAt
-                        from activity_messages m
-                        where m.activity_id in (:activityIds)
-                            and m.sender_id <> :userId
-                            and not exists (
-                                    select 1
-                                    from activity_message_seen s
-                                    where s.message_id = m.id
-                                        and s.user_id = :userId
-                            )
-                        group by m.activity_id
-                        """, nativeQuery = true)
-        List<ActivityUnreadSummaryProjection> findUnreadSummaryByActivityIdsAndUserId(@Param("activityIds") List<Long> activityIds,
-                                                                                                                                                                    @Param("userId") Long userId);
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with inserted_delivered as (
+                insert into activity_message_delivered (message_id, user_id, delivered_at)
+                select r.message_id, r.user_id, :deliveredAt
+                from unnest(cast(:messageIds as bigint[]), cast(:userIds as bigint[])) as r(message_id, user_id)
+                on conflict on constraint uq_message_delivered_user do nothing
+                returning message_id
+            ),
+            delivered_totals as (
+                select i.message_id, count(*) as total
+                from inserted_delivered i
+                group by i.message_id
+            )
+            update activity_messages m
+            set delivered_count = coalesce(m.delivered_count, 0) + t.total,
+                counters_updated_at = :deliveredAt
+            from delivered_totals t
+            where m.id = t.message_id
+            """, nativeQuery = true)
+    int insertDeliveredReceipts(@Param("messageIds") Long[] messageIds,
+                                @Param("userIds") Long[] userIds,
+                                @Param("deliveredAt") LocalDateTime deliveredAt);
+
+    @Query("""
+            select m.id as messageId, m.deliveredCount as deliveredCount, m.seenCount as seenCount
+            from ActivityMessage m
+            where m.id in :ids
+            order by m.id asc
+            """)
+    List<MessageReceiptCountsProjection> findReceiptCountsByIdIn(@Param("ids") List<Long> ids);
 
     @Query(value = """
-                    select m.activity_id as activityId,
-                                 count(*) as unreadCount,
-                                 max(m.created_at) as latestMessageAt
+            select max(m.id)
+            from activity_messages m
+            where m.activity_id = :activityId
+              and coalesce(m.message_type, 'CHAT') = :messageType
+            """, nativeQuery = true)
+    Long findMaxIdByActivityIdAndMessageType(@Param("activityId") Long activityId,
+                                             @Param("messageType") String messageType);
+
+    @Query(value = """
+            select m.id
+            from activity_messages m
+            where m.activity_id = :activityId
+              and coalesce(m.message_type, 'CHAT') = :messageType
+              and m.id <= :upToMessageId
+            order by m.id desc
+            offset :window
+            limit 1
+            """, nativeQuery = true)
+    Long findIdBeforeRecentWindow(@Param("activityId") Long activityId,
+                                  @Param("messageType") String messageType,
+                                  @Param("upToMessageId") Long upToMessageId,
+                                  @Param("window") int window);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with range_messages as (
+                select m.id
+                from activity_messages m
+                where m.activity_id = :activityId
+                  and coalesce(m.message_type, 'CHAT') = :messageType
+                  and m.sender_id <> :userId
+                  and m.id > :afterMessageId
+                  and m.id <= :upToMessageId
+            ),
+            inserted_delivered as (
+                insert into activity_message_delivered (message_id, user_id, delivered_at)
+                select r.id, :userId, :seenAt
+                from range_messages r
+                on conflict on constraint uq_message_delivered_user do nothing
+                returning message_id
+            )
+            update activity_messages m
+            set seen_count = coalesce(m.seen_count, 0) + 1,
+                delivered_count = coalesce(m.delivered_count, 0) + case when i.message_id is null then 0 else 1 end,
+                counters_updated_at = :seenAt
+            from range_messages r
+            left join inserted_delivered i on i.message_id = r.id
+            where m.id = r.id
+            """, nativeQuery = true)
+    int markRangeSeenAndDelivered(@Param("activityId") Long activityId,
+                                  @Param("userId") Long userId,
+                                  @Param("messageType") String messageType,
+                                  @Param("afterMessageId") Long afterMessageId,
+                                  @Param("upToMessageId") Long upToMessageId,
+                                  @Param("seenAt") LocalDateTime seenAt);
+
+    @Query(value = """
+            select m.id as messageId,
+                   m.delivered_count as deliveredCount,
+                   m.seen_count as seenCount
+            from activity_messages m
+            where m.activity_id = :activityId
+              and coalesce(m.message_type, 'CHAT') = :messageType
+              and m.sender_id <> :userId
+              and m.id > :afterMessageId
+              and m.id <= :upToMessageId
+            order by m.id asc
+            """, nativeQuery = true)
+    List<MessageReceiptCountsProjection> findReceiptCountsInRange(@Param("activityId") Long activityId,
+                                                                  @Param("userId") Long userId,
+                                                                  @Param("messageType") String messageType,
+                                                                  @Param("afterMessageId") Long afterMessageId,
+                                                                  @Param("upToMessageId") Long upToMessageId);
+
+    @Query(value = """
+            select distinct m.activity_id
+            from activity_messages m
+            where m.created_at >= :since
+               or m.delivered_count is null
+               or m.seen_count is null
+            """, nativeQuery = true)
+    List<Long> findActivityIdsWithReceiptCountersToReconcile(@Param("since") LocalDateTime since);
+
+    @Query(value = """
+            select m.id
+            from activity_messages m
+            where m.activity_id = :activityId
+              and (m.created_at >= :since
+                   or m.delivered_count is null
+                   or m.seen_count is null)
+            order by m.id asc
+            for update
+            """, nativeQuery = true)
+    List<Long> lockReceiptCountersToReconcile(@Param("activityId") Long activityId,
+                                              @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with seen_windows as (
+                select ranked.message_type, min(ranked.id) as first_id
+                from (
+                    select m.id,
+                           coalesce(m.message_type, 'CHAT') as message_type,
+                           row_number() over (partition by coalesce(m.message_type, 'CHAT') order by m.id desc) as rn
                     from activity_messages m
-                    where m.activity_id in (:activityIds)
-                        and coalesce(m.message_type, 'CHAT') = 'ANNOUNCEMENT'
-                        and m.sender_id <> :userId
-                        and not exists (
-                                select 1
-                                from activity_message_seen s
-                                where s.message_id = m.id
-                                    and s.user_id = :userId
-                        )
-                    group by m.activity_id
-                    """, nativeQuery = true)
-    List<ActivityUnreadSummaryProjection> findUnreadAnnouncementSummaryByActivityIdsAndUserId(@Param("activityIds") List<Long> activityIds,
-                                                                                                @Param("userId") Long userId);
+                    where m.activity_id = :activityId
+                ) ranked
+                where ranked.rn <= :seenWindow
+                group by ranked.message_type
+            ),
+            receipt_totals as (
+                select m.id as message_id,
+                       (select count(*)
+                        from activity_message_delivered d
+                        where d.message_id = m.id
+                          and d.user_id <> m.sender_id) as delivered_total,
+                       case
+                           when m.seen_count is not null and m.id < sw.first_id then m.seen_count
+                           else (select count(*)
+                                 from activity_read_watermarks w
+                                 where w.activity_id = m.activity_id
+                                   and w.user_id <> m.sender_id
+                                   and case
+                                           when coalesce(m.message_type, 'CHAT') = 'ANNOUNCEMENT' then w.last_seen_announcement_id
+                                           else w.last_seen_message_id
+                                       end >= m.id)
+                       end as seen_total
+                from activity_messages m
+                join seen_windows sw on sw.message_type = coalesce(m.message_type, 'CHAT')
+                where m.activity_id = :activityId
+                  and (m.created_at >= :since
+                       or m.delivered_count is null
+                       or m.seen_count is null)
+            )
+            update activity_messages m
+            set delivered_count = t.delivered_total,
+                seen_count = t.seen_total,
+                counters_updated_at = localtimestamp
+            from receipt_totals t
+            where m.id = t.message_id
+              and (m.delivered_count is distinct from t.delivered_total
+                   or m.seen_count is distinct from t.seen_total)
+            """, nativeQuery = true)
+    int reconcileReceiptCountsSince(@Param("activityId") Long activityId,
+                                    @Param("since") LocalDateTime since,
+                                    @Param("seenWindow") int seenWindow);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update activity_messages
+            set counters_updated_at = :updatedAt
+            where id = :messageId
+            """, nativeQuery = true)
+    int touchCountersUpdatedAt(@Param("messageId") Long messageId,
+                               @Param("updatedAt") LocalDateTime updatedAt);
+
+    @EntityGraph(attributePaths = {"sender"})
+    @Query("""
+            select m
+            from ActivityMessage m
+            where m.activity.id = :activityId
+              and coalesce(m.messageType, com.scutelnic.joinus.entity.ActivityMessageType.CHAT)
+                  = com.scutelnic.joinus.entity.ActivityMessageType.CHAT
+              and m.createdAt > :since
+            order by m.createdAt asc, m.id asc
+            """)
+    List<ActivityMessage> findChatPageCreatedSince(@Param("activityId") Long activityId,
+                                                   @Param("since") LocalDateTime since,
+                                                   Pageable pageable);
+
+    @Query("""
+            select m
+            from ActivityMessage m
+            where m.activity.id = :activityId
+              and coalesce(m.messageType, com.scutelnic.joinus.entity.ActivityMessageType.CHAT)
+                  = com.scutelnic.joinus.entity.ActivityMessageType.CHAT
+              and m.countersUpdatedAt > :since
+              and m.createdAt <= :since
+              and m.id > :afterMessageId
+            order by m.id asc
+            """)
+    List<ActivityMessage> findChatPageWithCountersChangedSince(@Param("activityId") Long activityId,
+                                                               @Param("since") LocalDateTime since,
+                                                               @Param("afterMessageId") Long afterMessageId,
+                                                               Pageable pageable);
+
+    @EntityGraph(attributePaths = {"sender"})
+    List<ActivityMessage> findByActivityIdAndMessageTypeAndCreatedAtAfterOrderByCreatedAtAscIdAsc(Long activityId,
+                                                                                                   ActivityMessageType messageType,
+                                                                                                   LocalDateTime createdAt);
 
     long deleteByActivityId(Long activityId);
 }
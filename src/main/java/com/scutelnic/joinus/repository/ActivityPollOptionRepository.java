@@ -2,7 +2,12 @@ package com.scutelnic.joinus.repository;
 
 import com.scutelnic.joinus.entity.ActivityPollOption;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +21,62 @@ public interface ActivityPollOptionRepository extends JpaRepository<ActivityPoll
 
     List<ActivityPollOption> findByPollId(Long pollId);
 
+    @Query("""
+            select o.id as optionId, coalesce(o.voteCount, 0) as voteCount
+            from ActivityPollOption o
+            where o.poll.id = :pollId
+            order by o.position asc
+            """)
+    List<OptionVoteCountView> findVoteCountsByPollId(@Param("pollId") Long pollId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update activity_poll_options
+            set vote_count = greatest(coalesce(vote_count, 0) + :delta, 0)
+            where id = :optionId
+            """, nativeQuery = true)
+    int adjustVoteCount(@Param("optionId") Long optionId, @Param("delta") long delta);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with vote_totals as (
+                select o.id as option_id, count(v.id) as total
+                from activity_poll_options o
+                join activity_polls p on p.id = o.poll_id
+                left join activity_poll_votes v on v.option_id = o.id
+                where coalesce(p.updated_at, p.created_at) >= cast(:since as timestamp)
+                group by o.id
+            )
+            update activity_poll_options o
+            set vote_count = t.total
+            from vote_totals t
+            where o.id = t.option_id
+              and o.vote_count is distinct from t.total
+            """, nativeQuery = true)
+    int reconcileVoteCountsSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update activity_poll_options o
+            set vote_count = (
+                select count(*)
+                from activity_poll_votes v
+                where v.option_id = o.id
+            )
+            where o.vote_count is null
+            """, nativeQuery = true)
+    int backfillUninitializedVoteCounts();
+
     long deleteByPollId(Long pollId);
 
     long deleteByPollActivityId(Long activityId);
+
+    interface OptionVoteCountView {
+        Long getOptionId();
+
+        Long getVoteCount();
+    }
 }
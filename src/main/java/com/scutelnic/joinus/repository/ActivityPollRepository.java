@@ -3,7 +3,12 @@ package com.scutelnic.joinus.repository;
 import com.scutelnic.joinus.entity.ActivityPoll;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,5 +20,41 @@ public interface ActivityPollRepository extends JpaRepository<ActivityPoll, Long
     @EntityGraph(attributePaths = {"creator"})
     Optional<ActivityPoll> findByIdAndActivityId(Long pollId, Long activityId);
 
+    @EntityGraph(attributePaths = {"creator"})
+    @Query("""
+            select p
+            from ActivityPoll p
+            where p.activity.id = :activityId
+              and (p.updatedAt > :since or (p.updatedAt is null and p.createdAt > :since))
+            order by p.createdAt desc
+            """)
+    List<ActivityPoll> findChangedSince(@Param("activityId") Long activityId,
+                                        @Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            update activity_polls
+            set updated_at = :updatedAt
+            where id = :pollId
+            """, nativeQuery = true)
+    int touchUpdatedAt(@Param("pollId") Long pollId,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(value = """
+            update activity_polls
+            set question = :question,
+                updated_at = :updatedAt
+            where id = :pollId
+            """, nativeQuery = true)
+    int updateQuestion(@Param("pollId") Long pollId,
+                       @Param("question") String question,
+                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("select p.id from ActivityPoll p where p.activity.id = :activityId")
+    List<Long> findIdsByActivityId(@Param("activityId") Long activityId);
+
     long deleteByActivityId(Long activityId);
 }
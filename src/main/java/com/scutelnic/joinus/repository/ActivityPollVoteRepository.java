@@ -1,9 +1,18 @@
 package com.scutelnic.joinus.repository;
 
 import com.scutelnic.joinus.entity.ActivityPollVote;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,12 +20,42 @@ public interface ActivityPollVoteRepository extends JpaRepository<ActivityPollVo
 
     Optional<ActivityPollVote> findByPollIdAndVoterId(Long pollId, Long voterId);
 
-    @EntityGraph(attributePaths = {"poll", "option", "voter"})
-    List<ActivityPollVote> findByPollIdInOrderByVotedAtAsc(List<Long> pollIds);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ActivityPollVote> findForUpdateByPollIdAndVoterId(Long pollId, Long voterId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into activity_poll_votes (poll_id, option_id, voter_id, voted_at)
+            values (:pollId, :optionId, :voterId, :votedAt)
+            on conflict on constraint uq_poll_vote_user do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("pollId") Long pollId,
+                       @Param("optionId") Long optionId,
+                       @Param("voterId") Long voterId,
+                       @Param("votedAt") LocalDateTime votedAt);
+
+    @Query("""
+            select v.poll.id as pollId, v.option.id as optionId
+            from ActivityPollVote v
+            where v.poll.id in :pollIds
+              and v.voter.id = :voterId
+            """)
+    List<VoterChoiceView> findChoicesByPollIdsAndVoterId(@Param("pollIds") List<Long> pollIds,
+                                                         @Param("voterId") Long voterId);
+
+    @EntityGraph(attributePaths = {"voter"})
+    Slice<ActivityPollVote> findByOptionIdOrderByVotedAtAscIdAsc(Long optionId, Pageable pageable);
 
     long deleteByOptionId(Long optionId);
 
     long deleteByPollId(Long pollId);
 
     long deleteByPollActivityId(Long activityId);
+
+    interface VoterChoiceView {
+        Long getPollId();
+
+        Long getOptionId();
+    }
 }
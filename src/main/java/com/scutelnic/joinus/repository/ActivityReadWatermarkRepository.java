@@ -0,0 +1,64 @@
+package com.scutelnic.joinus.repository;
+
+import com.scutelnic.joinus.entity.ActivityReadWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ActivityReadWatermarkRepository extends JpaRepository<ActivityReadWatermark, Long> {
+
+    interface MessageSeenUserView {
+        Long getMessageId();
+
+        Long getUserId();
+
+        String getFullName();
+
+        LocalDateTime getSeenAt();
+    }
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ActivityReadWatermark> findForUpdateByActivityIdAndUserId(Long activityId, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into activity_read_watermarks (activity_id, user_id, last_seen_message_id, last_seen_announcement_id, last_seen_at)
+            values (:activityId, :userId, 0, 0, :seenAt)
+            on conflict on constraint uq_read_watermark_activity_user do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("activityId") Long activityId,
+                       @Param("userId") Long userId,
+                       @Param("seenAt") LocalDateTime seenAt);
+
+    @Query(value = """
+            select m.id as messageId,
+                   u.id as userId,
+                   u.full_name as fullName,
+                   w.last_seen_at as seenAt
+            from activity_messages m
+            join activity_read_watermarks w
+              on w.activity_id = m.activity_id
+             and w.user_id <> m.sender_id
+             and case
+                     when coalesce(m.message_type, 'CHAT') = 'ANNOUNCEMENT' then w.last_seen_announcement_id
+                     else w.last_seen_message_id
+                 end >= m.id
+            join users u on u.id = w.user_id
+            where m.activity_id = :activityId
+              and m.id in (:messageIds)
+            order by m.id asc, w.last_seen_at asc
+            """, nativeQuery = true)
+    List<MessageSeenUserView> findSeenUsersByActivityIdAndMessageIds(@Param("activityId") Long activityId,
+                                                                     @Param("messageIds") List<Long> messageIds);
+
+    long deleteByActivityId(Long activityId);
+}
@@ -1,9 +1,17 @@
 package com.scutelnic.joinus.repository;
 
 import com.scutelnic.joinus.entity.Activity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +21,67 @@ public interface ActivityRepository extends JpaRepository<Activity, Long> {
     Optional<Activity> findWithCreatorById(Long id);
 
     List<Activity> findAllByCreatorIdOrderByCreatedAtDesc(Long creatorId);
+
+    @EntityGraph(attributePaths = "creator")
+    List<Activity> findWithCreatorByIdIn(Collection<Long> ids);
+
+    @Query("""
+            select a
+            from Activity a
+            where a.createdAt < :beforeCreatedAt
+               or (a.createdAt = :beforeCreatedAt and a.id < :beforeId)
+            order by a.createdAt desc, a.id desc
+            """)
+    Slice<Activity> findPageBefore(@Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                   @Param("beforeId") Long beforeId,
+                                   Pageable pageable);
+
+    @Transactional
+    @Query(value = """
+            update activities
+            set last_message_seq = coalesce(last_message_seq, 0) + 1
+            where id = :activityId
+            returning last_message_seq
+            """, nativeQuery = true)
+    Long nextMessageSeq(@Param("activityId") Long activityId);
+
+    @Query(value = """
+            select a.id
+            from activities a
+            where a.creator_id = :userId
+            union
+            select p.activity_id
+            from activity_participations p
+            where p.user_id = :userId
+              and p.status = 'APPROVED'
+            """, nativeQuery = true)
+    List<Long> findAccessibleIdsByUserId(@Param("userId") Long userId);
+
+    @Query(value = """
+            select a.*
+            from activities a
+            where a.search_vector @@ to_tsquery('simple', :query)
+            order by ts_rank(a.search_vector, to_tsquery('simple', :query)) desc, a.created_at desc, a.id desc
+            """,
+            countQuery = """
+            select count(*)
+            from activities a
+            where a.search_vector @@ to_tsquery('simple', :query)
+            """,
+            nativeQuery = true)
+    Page<Activity> searchByRelevance(@Param("query") String query, Pageable pageable);
+
+    @Query(value = """
+            select a.*
+            from activities a
+            where a.search_vector @@ to_tsquery('simple', :query)
+            order by a.created_at desc, a.id desc
+            """,
+            countQuery = """
+            select count(*)
+            from activities a
+            where a.search_vector @@ to_tsquery('simple', :query)
+            """,
+            nativeQuery = true)
+    Page<Activity> searchByRecency(@Param("query") String query, Pageable pageable);
 }
@@ -0,0 +1,190 @@
+package com.scutelnic.joinus.repository;
+
+import com.scutelnic.joinus.entity.ActivityUnreadCounter;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ActivityUnreadCounterRepository extends JpaRepository<ActivityUnreadCounter, Long> {
+
+    interface UnreadCounterView {
+        Long getActivityId();
+
+        long getUnreadChat();
+
+        long getUnreadAnnouncements();
+
+        LocalDateTime getLatestAt();
+    }
+
+    @Query("""
+            select c.activity.id as activityId,
+                   c.unreadChat as unreadChat,
+                   c.unreadAnnouncements as unreadAnnouncements,
+                   c.latestAt as latestAt
+            from ActivityUnreadCounter c
+            where c.user.id = :userId
+              and c.activity.id in :activityIds
+              and (c.unreadChat > 0 or c.unreadAnnouncements > 0)
+            """)
+    List<UnreadCounterView> findUnreadByUserIdAndActivityIds(@Param("userId") Long userId,
+                                                             @Param("activityIds") Collection<Long> activityIds);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into activity_unread_counters (user_id, activity_id, unread_chat, unread_announcements, latest_at)
+            select r.user_id,
+                   :activityId,
+                   case when :messageType = 'ANNOUNCEMENT' then 0 else 1 end,
+                   case when :messageType = 'ANNOUNCEMENT' then 1 else 0 end,
+                   :createdAt
+            from (
+                select a.creator_id as user_id
+                from activities a
+                where a.id = :activityId
+                union
+                select p.user_id
+                from activity_participations p
+                where p.activity_id = :activityId
+                  and p.status = 'APPROVED'
+            ) r
+            where r.user_id <> :senderId
+            order by r.user_id
+            on conflict on constraint uq_unread_counter_user_activity
+            do update set unread_chat = activity_unread_counters.unread_chat + excluded.unread_chat,
+                          unread_announcements = activity_unread_counters.unread_announcements + excluded.unread_announcements,
+                          latest_at = greatest(activity_unread_counters.latest_at, excluded.latest_at)
+            """, nativeQuery = true)
+    int incrementForRecipients(@Param("activityId") Long activityId,
+                               @Param("senderId") Long senderId,
+                               @Param("messageType") String messageType,
+                               @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into activity_unread_counters (user_id, activity_id, unread_chat, unread_announcements)
+            values (:userId, :activityId, 0, 0)
+            on conflict on constraint uq_unread_counter_user_activity do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("activityId") Long activityId, @Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ActivityUnreadCounter> findForUpdateByActivityIdAndUserId(Long activityId, Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into activity_unread_counters (user_id, activity_id, unread_chat, unread_announcements, latest_at)
+            select :userId,
+                   :activityId,
+                   count(m.id) filter (where coalesce(m.message_type, 'CHAT') = 'CHAT'),
+                   count(m.id) filter (where coalesce(m.message_type, 'CHAT') = 'ANNOUNCEMENT'),
+                   max(m.created_at)
+            from activity_messages m
+            left join activity_read_watermarks w
+              on w.activity_id = m.activity_id
+             and w.user_id = :userId
+            where m.activity_id = :activityId
+              and m.sender_id <> :userId
+              and m.id > case
+                             when coalesce(m.message_type, 'CHAT') = 'ANNOUNCEMENT' then coalesce(w.last_seen_announcement_id, 0)
+                             else coalesce(w.last_seen_message_id, 0)
+                         end
+            on conflict on constraint uq_unread_counter_user_activity
+            do update set unread_chat = excluded.unread_chat,
+                          unread_announcements = excluded.unread_announcements,
+                          latest_at = excluded.latest_at
+            """, nativeQuery = true)
+    int recompute(@Param("activityId") Long activityId, @Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with recent_activities as (
+                select m.activity_id
+                from activity_messages m
+                where m.created_at >= :since
+                union
+                select w.activity_id
+                from activity_read_watermarks w
+                where w.last_seen_at >= :since
+            ),
+            members as (
+                select a.id as activity_id, a.creator_id as user_id
+                from activities a
+                join recent_activities r on r.activity_id = a.id
+                union
+                select p.activity_id, p.user_id
+                from activity_participations p
+                join recent_activities r on r.activity_id = p.activity_id
+                where p.status = 'APPROVED'
+            ),
+            expected as (
+                select mb.user_id,
+                       mb.activity_id,
+                       count(m.id) filter (where coalesce(m.message_type, 'CHAT') = 'CHAT') as unread_chat,
+                       count(m.id) filter (where coalesce(m.message_type, 'CHAT') = 'ANNOUNCEMENT') as unread_announcements,
+                       max(m.created_at) as latest_at
+                from members mb
+                left join activity_read_watermarks w
+                  on w.activity_id = mb.activity_id
+                 and w.user_id = mb.user_id
+                left join activity_messages m
+                  on m.activity_id = mb.activity_id
+                 and m.sender_id <> mb.user_id
+                 and m.id > case
+                                when coalesce(m.message_type, 'CHAT') = 'ANNOUNCEMENT' then coalesce(w.last_seen_announcement_id, 0)
+                                else coalesce(w.last_seen_message_id, 0)
+                            end
+                group by mb.user_id, mb.activity_id
+            )
+            insert into activity_unread_counters (user_id, activity_id, unread_chat, unread_announcements, latest_at)
+            select e.user_id, e.activity_id, e.unread_chat, e.unread_announcements, e.latest_at
+            from expected e
+            on conflict on constraint uq_unread_counter_user_activity
+            do update set unread_chat = excluded.unread_chat,
+                          unread_announcements = excluded.unread_announcements,
+                          latest_at = excluded.latest_at
+            where (activity_unread_counters.unread_chat,
+                   activity_unread_counters.unread_announcements,
+                   activity_unread_counters.latest_at)
+                  is distinct from (excluded.unread_chat, excluded.unread_announcements, excluded.latest_at)
+            """, nativeQuery = true)
+    int reconcileSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            delete from activity_unread_counters c
+            using activity_participations p
+            where p.activity_id = c.activity_id
+              and p.user_id = c.user_id
+              and p.status <> 'APPROVED'
+              and p.responded_at >= :since
+              and not exists (
+                      select 1
+                      from activities a
+                      where a.id = c.activity_id
+                        and a.creator_id = c.user_id
+                  )
+            """, nativeQuery = true)
+    int deleteForFormerMembersSince(@Param("since") LocalDateTime since);
+
+    @Query(value = "select exists (select 1 from activity_unread_counters)", nativeQuery = true)
+    boolean existsAny();
+
+    long deleteByActivityIdAndUserId(Long activityId, Long userId);
+
+    long deleteByActivityId(Long activityId);
+}
@@ -2,10 +2,37 @@ package com.scutelnic.joinus.repository;
 
 import com.scutelnic.joinus.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    interface UserEmailView {
+        Long getId();
+
+        String getEmail();
+    }
+
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    @Query("select u.email from User u where u.id = :userId")
+    Optional<String> findEmailById(@Param("userId") Long userId);
+
+    @Query(value = """
+            select u.id as id, u.email as email
+            from activities a
+            join users u on u.id = a.creator_id
+            where a.id = :activityId
+            union
+            select u.id as id, u.email as email
+            from activity_participations p
+            join users u on u.id = p.user_id
+            where p.activity_id = :activityId
+              and p.status = 'APPROVED'
+            """, nativeQuery = true)
+    List<UserEmailView> findActivityMemberEmails(@Param("activityId") Long activityId);
 }
@@ -0,0 +1,132 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class AccessibleActivityCache {
+
+    private final ActivityRepository activityRepository;
+    private final int maxUsers;
+    private final boolean enabled;
+    private final LinkedHashMap<Long, Set<Long>> activityIdsByUser = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> stampsByUser = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long globalStamp;
+
+    public AccessibleActivityCache(ActivityRepository activityRepository,
+                                   @Value("${joinus.activity-access.cache.max-users:10000}") int maxUsers,
+                                   @Value("${joinus.websocket.broker.mode:simple}") WebSocketConfig.BrokerMode brokerMode,
+                                   MeterRegistry meterRegistry) {
+        this.activityRepository = activityRepository;
+        this.maxUsers = Math.max(1, maxUsers);
+        // Membership changes on other nodes cannot invalidate this cache behind a relay.
+        this.enabled = brokerMode != WebSocketConfig.BrokerMode.RELAY;
+
+        FunctionCounter.builder("joinus.activity.access.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("joinus.activity.access.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("joinus.activity.access.cache.users", this, AccessibleActivityCache::cachedUserCount)
+                .register(meterRegistry);
+    }
+
+    public Set<Long> getAccessibleActivityIds(Long userId) {
+        if (userId == null) {
+            return Set.of();
+        }
+
+        long expectedStamp;
+        synchronized (this) {
+            Set<Long> cached = activityIdsByUser.get(userId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            expectedStamp = stamp(userId);
+        }
+
+        Set<Long> loaded = Collections.unmodifiableSet(new LinkedHashSet<>(activityRepository.findAccessibleIdsByUserId(userId)));
+        synchronized (this) {
+            if (enabled && stamp(userId) == expectedStamp) {
+                activityIdsByUser.put(userId, loaded);
+                evictOverCapacity();
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        // Dropped now so this transaction reloads, and again after commit in case another thread
+        // cached the pre-commit membership in between.
+        invalidateUserNow(userId);
+        afterCommit(() -> invalidateUserNow(userId));
+    }
+
+    public void invalidateActivity(Long activityId) {
+        invalidateActivityNow(activityId);
+        afterCommit(() -> invalidateActivityNow(activityId));
+    }
+
+    private synchronized void invalidateUserNow(Long userId) {
+        stampsByUser.merge(userId, 1L, Long::sum);
+        activityIdsByUser.remove(userId);
+    }
+
+    private synchronized void invalidateActivityNow(Long activityId) {
+        globalStamp++;
+        activityIdsByUser.values().removeIf(activityIds -> activityIds.contains(activityId));
+    }
+
+    private long stamp(Long userId) {
+        return globalStamp + stampsByUser.getOrDefault(userId, 0L);
+    }
+
+    private void evictOverCapacity() {
+        Iterator<Map.Entry<Long, Set<Long>>> iterator = activityIdsByUser.entrySet().iterator();
+        while (activityIdsByUser.size() > maxUsers && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private synchronized int cachedUserCount() {
+        return activityIdsByUser.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
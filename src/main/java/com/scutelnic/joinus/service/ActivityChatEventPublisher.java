@@ -0,0 +1,147 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.dto.chat.AnnouncementResponse;
+import com.scutelnic.joinus.dto.chat.ChatMessageResponse;
+import com.scutelnic.joinus.dto.chat.MessageReactionCountResponse;
+import com.scutelnic.joinus.dto.chat.MessageReactionOverlayEvent;
+import com.scutelnic.joinus.dto.chat.MessageReactionUpdateEvent;
+import com.scutelnic.joinus.dto.chat.PollOptionCountResponse;
+import com.scutelnic.joinus.dto.chat.PollOverlayEvent;
+import com.scutelnic.joinus.dto.chat.PollUpdateEvent;
+import com.scutelnic.joinus.dto.chat.PollVoteEvent;
+import com.scutelnic.joinus.dto.chat.SeenBatchUpdateEvent;
+import com.scutelnic.joinus.dto.chat.SeenUpdateEvent;
+import com.scutelnic.joinus.dto.chat.UnreadChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ActivityChatEventPublisher {
+
+    public static final String WIRE_FORMAT_HEADER = "wire-format";
+    public static final String COMPACT_WIRE_FORMAT = "compact";
+    public static final String COMPACT_PAYLOAD_HEADER = "joinusCompactPayload";
+
+    private static final MessageHeaders JSON_HEADERS = new MessageHeaders(
+            Map.of(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+    );
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final boolean compactEnabled;
+
+    public ActivityChatEventPublisher(SimpMessagingTemplate messagingTemplate,
+                                      @Value("${joinus.websocket.compact-events.enabled:true}") boolean compactEnabled) {
+        this.messagingTemplate = messagingTemplate;
+        this.compactEnabled = compactEnabled;
+    }
+
+    public void publishMessage(Long activityId, ChatMessageResponse message) {
+        send("/topic/activities/" + activityId, message, null);
+    }
+
+    public void publishAnnouncement(Long activityId, AnnouncementResponse announcement) {
+        send("/topic/activities/" + activityId + "/announcements", announcement, null);
+    }
+
+    public void publishStatus(Long activityId, SeenBatchUpdateEvent event) {
+        List<List<Long>> updates = new ArrayList<>(event.updates().size());
+        for (SeenUpdateEvent update : event.updates()) {
+            updates.add(List.of(update.messageId(), update.deliveredCount(), update.seenCount()));
+        }
+
+        Map<String, Object> compact = new LinkedHashMap<>();
+        compact.put("k", "s");
+        compact.put("u", updates);
+        send("/topic/activities/" + activityId + "/status", event, compact);
+    }
+
+    public void publishReaction(Long activityId, MessageReactionUpdateEvent event) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (MessageReactionCountResponse reaction : event.reactions()) {
+            if (reaction.count() > 0) {
+                counts.put(reaction.reactionType(), reaction.count());
+            }
+        }
+
+        Map<String, Object> compact = new LinkedHashMap<>();
+        compact.put("k", "r");
+        compact.put("m", event.messageId());
+        compact.put("c", counts);
+        send("/topic/activities/" + activityId + "/reactions", event, compact);
+    }
+
+    public void publishReactionOverlay(String userEmail, MessageReactionOverlayEvent overlay) {
+        messagingTemplate.convertAndSendToUser(userEmail, "/queue/reactions", overlay);
+    }
+
+    public void publishPoll(Long activityId, PollUpdateEvent event) {
+        Map<String, Object> compact = null;
+        if ("deleted".equals(event.action())) {
+            compact = new LinkedHashMap<>();
+            compact.put("k", "p");
+            compact.put("a", "d");
+            compact.put("p", event.pollId());
+        }
+        // Structural changes are rare; every other client gets the full poll.
+        send(pollsTopic(activityId), event, compact);
+    }
+
+    public void publishPollVote(Long activityId, PollVoteEvent event) {
+        List<List<Long>> counts = new ArrayList<>(event.counts().size());
+        for (PollOptionCountResponse count : event.counts()) {
+            counts.add(List.of(count.optionId(), count.voteCount()));
+        }
+
+        Map<String, Object> compact = new LinkedHashMap<>();
+        compact.put("k", "p");
+        compact.put("a", "v");
+        compact.put("p", event.pollId());
+        compact.put("o", event.optionId());
+        compact.put("po", event.previousOptionId());
+        compact.put("c", counts);
+        send(pollsTopic(activityId), event, compact);
+    }
+
+    public void publishPollOverlay(String userEmail, PollOverlayEvent overlay) {
+        messagingTemplate.convertAndSendToUser(userEmail, "/queue/polls", overlay);
+    }
+
+    public void publishUnreadChanged(String userEmail, UnreadChangedEvent event) {
+        messagingTemplate.convertAndSendToUser(userEmail, "/queue/unread", event);
+    }
+
+    private String pollsTopic(Long activityId) {
+        return "/topic/activities/" + activityId + "/polls";
+    }
+
+    private void send(String destination, Object payload, Map<String, Object> compactPayload) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        if (compactEnabled && compactPayload != null) {
+            headers.setHeader(COMPACT_PAYLOAD_HEADER, encode(compactPayload));
+        }
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(encode(payload), headers.getMessageHeaders()));
+    }
+
+    private byte[] encode(Object payload) {
+        Message<?> encoded = messagingTemplate.getMessageConverter().toMessage(payload, JSON_HEADERS);
+        if (encoded == null || !(encoded.getPayload() instanceof byte[] bytes)) {
+            throw new MessageConversionException("Cannot encode " + payload.getClass().getSimpleName() + " as JSON");
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,287 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig;
+import com.scutelnic.joinus.dto.chat.SeenUpdateEvent;
+import com.scutelnic.joinus.entity.ActivityMessageReactionType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class ActivityChatHistoryCache {
+
+    private static final long MESSAGE_OVERHEAD_BYTES = 256;
+    private static final long REACTION_ENTRY_BYTES = 48;
+
+    private final int windowSize;
+    private final long maxBytes;
+    private final boolean enabled;
+    private final LinkedHashMap<Long, HistoryWindow> windowsByActivity = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> mutationStampsByActivity = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long totalBytes;
+
+    public ActivityChatHistoryCache(@Value("${joinus.chat.history-cache.window-size:200}") int windowSize,
+                                    @Value("${joinus.chat.history-cache.max-bytes:33554432}") long maxBytes,
+                                    @Value("${joinus.websocket.broker.mode:simple}") WebSocketConfig.BrokerMode brokerMode,
+                                    MeterRegistry meterRegistry) {
+        this.windowSize = Math.max(1, windowSize);
+        this.maxBytes = Math.max(0L, maxBytes);
+        // Mutations on other nodes never reach this cache behind a relay, so windows would go stale.
+        this.enabled = brokerMode != WebSocketConfig.BrokerMode.RELAY;
+
+        FunctionCounter.builder("joinus.chat.history.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("joinus.chat.history.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("joinus.chat.history.cache.evictions", evictions, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder("joinus.chat.history.cache.activities", this, ActivityChatHistoryCache::cachedActivityCount)
+                .register(meterRegistry);
+        Gauge.builder("joinus.chat.history.cache.bytes", this, ActivityChatHistoryCache::estimatedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public synchronized long mutationStamp(Long activityId) {
+        return mutationStampsByActivity.getOrDefault(activityId, 0L);
+    }
+
+    public synchronized Optional<List<CachedChatMessage>> findPage(Long activityId, Long beforeMessageId, int limit) {
+        HistoryWindow window = windowsByActivity.get(activityId);
+        List<CachedChatMessage> page = window != null ? window.page(beforeMessageId, limit) : null;
+        if (page == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(page);
+    }
+
+    public synchronized void store(Long activityId,
+                                   long expectedStamp,
+                                   List<CachedChatMessage> oldestFirst,
+                                   boolean reachesOldestMessage) {
+        if (!enabled || mutationStamp(activityId) != expectedStamp || windowsByActivity.containsKey(activityId)) {
+            return;
+        }
+
+        HistoryWindow window = new HistoryWindow(reachesOldestMessage);
+        for (CachedChatMessage message : oldestFirst) {
+            window.append(message);
+        }
+        while (window.messages.size() > windowSize) {
+            window.removeOldest();
+        }
+        windowsByActivity.put(activityId, window);
+        totalBytes += window.bytes;
+        evictOverBudget();
+    }
+
+    public synchronized Long oldestCachedMessageId(Long activityId) {
+        HistoryWindow window = windowsByActivity.get(activityId);
+        if (window == null || window.messages.isEmpty()) {
+            return null;
+        }
+        return window.messages.keySet().iterator().next();
+    }
+
+    public synchronized void append(CachedChatMessage message) {
+        Long activityId = message.activityId();
+        bumpMutationStamp(activityId);
+        HistoryWindow window = windowsByActivity.get(activityId);
+        if (window == null || window.messages.containsKey(message.id())) {
+            return;
+        }
+        if (!window.acceptsAppend(message)) {
+            evict(activityId);
+            return;
+        }
+
+        long before = window.bytes;
+        window.append(message);
+        while (window.messages.size() > windowSize) {
+            window.removeOldest();
+        }
+        totalBytes += window.bytes - before;
+        evictOverBudget();
+    }
+
+    public synchronized void patchReceiptCounts(Long activityId, List<SeenUpdateEvent> updates) {
+        if (updates == null || updates.isEmpty()) {
+            return;
+        }
+        bumpMutationStamp(activityId);
+        HistoryWindow window = windowsByActivity.get(activityId);
+        if (window == null) {
+            return;
+        }
+        for (SeenUpdateEvent update : updates) {
+            window.messages.computeIfPresent(update.messageId(), (id, cached) ->
+                    cached.withReceiptCounts(update.deliveredCount(), update.seenCount()));
+        }
+    }
+
+    public synchronized void patchReactionCounts(Long activityId,
+                                                 Long messageId,
+                                                 Map<ActivityMessageReactionType, Long> reactionCounts) {
+        bumpMutationStamp(activityId);
+        HistoryWindow window = windowsByActivity.get(activityId);
+        if (window == null) {
+            return;
+        }
+        CachedChatMessage cached = window.messages.get(messageId);
+        if (cached == null) {
+            return;
+        }
+
+        CachedChatMessage patched = cached.withReactionCounts(reactionCounts);
+        window.messages.put(messageId, patched);
+        long delta = patched.estimatedBytes() - cached.estimatedBytes();
+        window.bytes += delta;
+        totalBytes += delta;
+        evictOverBudget();
+    }
+
+    public synchronized void evict(Long activityId) {
+        bumpMutationStamp(activityId);
+        HistoryWindow window = windowsByActivity.remove(activityId);
+        if (window != null) {
+            totalBytes -= window.bytes;
+            evictions.increment();
+        }
+    }
+
+    private synchronized int cachedActivityCount() {
+        return windowsByActivity.size();
+    }
+
+    private synchronized long estimatedBytes() {
+        return totalBytes;
+    }
+
+    private void bumpMutationStamp(Long activityId) {
+        mutationStampsByActivity.merge(activityId, 1L, Long::sum);
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, HistoryWindow>> iterator = windowsByActivity.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            HistoryWindow eldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= eldest.bytes;
+            evictions.increment();
+        }
+    }
+
+    public record CachedChatMessage(
+            Long id,
+            Long activityId,
+            Long seq,
+            Long senderId,
+            String senderName,
+            String content,
+            LocalDateTime createdAt,
+            long deliveredCount,
+            long seenCount,
+            Map<ActivityMessageReactionType, Long> reactionCounts
+    ) {
+
+        public CachedChatMessage {
+            reactionCounts = reactionCounts == null || reactionCounts.isEmpty()
+                    ? Map.of()
+                    : Map.copyOf(new EnumMap<>(reactionCounts));
+        }
+
+        private CachedChatMessage withReceiptCounts(long deliveredCount, long seenCount) {
+            return new CachedChatMessage(id, activityId, seq, senderId, senderName, content, createdAt,
+                    deliveredCount, seenCount, reactionCounts);
+        }
+
+        private CachedChatMessage withReactionCounts(Map<ActivityMessageReactionType, Long> reactionCounts) {
+            return new CachedChatMessage(id, activityId, seq, senderId, senderName, content, createdAt,
+                    deliveredCount, seenCount, reactionCounts);
+        }
+
+        private long estimatedBytes() {
+            long textLength = (content != null ? content.length() : 0) + (senderName != null ? senderName.length() : 0);
+            return MESSAGE_OVERHEAD_BYTES + textLength * 2 + reactionCounts.size() * REACTION_ENTRY_BYTES;
+        }
+
+        private boolean isAfter(CachedChatMessage other) {
+            int byCreatedAt = createdAt.compareTo(other.createdAt);
+            return byCreatedAt > 0 || (byCreatedAt == 0 && id > other.id);
+        }
+    }
+
+    private final class HistoryWindow {
+        private final LinkedHashMap<Long, CachedChatMessage> messages = new LinkedHashMap<>();
+        private boolean reachesOldestMessage;
+        private CachedChatMessage newest;
+        private long bytes;
+
+        private HistoryWindow(boolean reachesOldestMessage) {
+            this.reachesOldestMessage = reachesOldestMessage;
+        }
+
+        private boolean acceptsAppend(CachedChatMessage message) {
+            return newest == null || message.isAfter(newest);
+        }
+
+        private void append(CachedChatMessage message) {
+            messages.put(message.id(), message);
+            newest = message;
+            bytes += message.estimatedBytes();
+        }
+
+        private void removeOldest() {
+            Iterator<CachedChatMessage> iterator = messages.values().iterator();
+            CachedChatMessage oldest = iterator.next();
+            iterator.remove();
+            bytes -= oldest.estimatedBytes();
+            reachesOldestMessage = false;
+        }
+
+        private List<CachedChatMessage> page(Long beforeMessageId, int limit) {
+            List<CachedChatMessage> ordered = new ArrayList<>(messages.values());
+            int end = ordered.size();
+            if (beforeMessageId != null) {
+                CachedChatMessage cursor = messages.get(beforeMessageId);
+                if (cursor == null) {
+                    return null;
+                }
+                end = ordered.indexOf(cursor);
+            }
+
+            int start = end - limit;
+            if (start < 0) {
+                if (!reachesOldestMessage) {
+                    return null;
+                }
+                start = 0;
+            }
+            return List.copyOf(ordered.subList(start, end));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.dto.chat.SeenBatchUpdateEvent;
+import com.scutelnic.joinus.dto.chat.SeenUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class ActivityChatReceiptCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityChatReceiptCoalescer.class);
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final ActivityChatService activityChatService;
+    private final ActivityChatEventPublisher eventPublisher;
+    private final ConcurrentHashMap<Long, ReceiptBuffer> buffersByActivity = new ConcurrentHashMap<>();
+
+    public ActivityChatReceiptCoalescer(ActivityChatService activityChatService,
+                                        ActivityChatEventPublisher eventPublisher) {
+        this.activityChatService = activityChatService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void enqueueDelivered(Long activityId, Long userId, Long messageId) {
+        buffersByActivity.compute(activityId, (key, buffer) -> {
+            ReceiptBuffer target = buffer != null ? buffer : new ReceiptBuffer();
+            target.delivered.computeIfAbsent(userId, id -> new HashSet<>()).add(messageId);
+            return target;
+        });
+    }
+
+    public void enqueueSeen(Long activityId, Long userId, Long messageId) {
+        buffersByActivity.compute(activityId, (key, buffer) -> {
+            ReceiptBuffer target = buffer != null ? buffer : new ReceiptBuffer();
+            target.seen.computeIfAbsent(userId, id -> new HashSet<>()).add(messageId);
+            return target;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${joinus.chat.receipt-coalescing.window:PT0.2S}")
+    public void flush() {
+        for (Long activityId : buffersByActivity.keySet()) {
+            ReceiptBuffer buffer = buffersByActivity.remove(activityId);
+            if (buffer == null) {
+                continue;
+            }
+            List<SeenUpdateEvent> updates;
+            try {
+                updates = activityChatService.applyReceiptBatch(activityId, buffer.delivered, buffer.seen);
+            } catch (RuntimeException ex) {
+                log.warn("Could not flush chat receipts for activity {}, retrying per user", activityId, ex);
+                updates = applyPerUser(activityId, buffer);
+            }
+            if (!updates.isEmpty()) {
+                eventPublisher.publishStatus(activityId, new SeenBatchUpdateEvent(activityId, updates));
+            }
+        }
+    }
+
+    private List<SeenUpdateEvent> applyPerUser(Long activityId, ReceiptBuffer buffer) {
+        Set<Long> userIds = new LinkedHashSet<>(buffer.delivered.keySet());
+        userIds.addAll(buffer.seen.keySet());
+
+        Map<Long, SeenUpdateEvent> updatesByMessage = new LinkedHashMap<>();
+        ReceiptBuffer retry = new ReceiptBuffer(buffer.attempts + 1);
+        for (Long userId : userIds) {
+            Map<Long, Set<Long>> delivered = singleUser(buffer.delivered, userId);
+            Map<Long, Set<Long>> seen = singleUser(buffer.seen, userId);
+            try {
+                activityChatService.applyReceiptBatch(activityId, delivered, seen)
+                        .forEach(update -> updatesByMessage.put(update.messageId(), update));
+            } catch (RuntimeException ex) {
+                log.warn("Could not apply chat receipts of user {} for activity {}", userId, activityId, ex);
+                retry.delivered.putAll(delivered);
+                retry.seen.putAll(seen);
+            }
+        }
+
+        // Receipts are idempotent, so a user whose apply failed is queued for the next flush a few times.
+        if (!retry.isEmpty() && retry.attempts < MAX_FLUSH_ATTEMPTS) {
+            buffersByActivity.merge(activityId, retry, ReceiptBuffer::mergeFrom);
+        } else if (!retry.isEmpty()) {
+            log.error("Dropping chat receipts for activity {} after {} attempts", activityId, retry.attempts);
+        }
+        return new ArrayList<>(updatesByMessage.values());
+    }
+
+    private static Map<Long, Set<Long>> singleUser(Map<Long, Set<Long>> messageIdsByUser, Long userId) {
+        Set<Long> messageIds = messageIdsByUser.get(userId);
+        return messageIds != null ? Map.of(userId, messageIds) : Map.of();
+    }
+
+    private static final class ReceiptBuffer {
+        private final Map<Long, Set<Long>> delivered = new LinkedHashMap<>();
+        private final Map<Long, Set<Long>> seen = new LinkedHashMap<>();
+        private int attempts;
+
+        private ReceiptBuffer() {
+            this(0);
+        }
+
+        private ReceiptBuffer(int attempts) {
+            this.attempts = attempts;
+        }
+
+        private boolean isEmpty() {
+            return delivered.isEmpty() && seen.isEmpty();
+        }
+
+        private ReceiptBuffer mergeFrom(ReceiptBuffer retry) {
+            retry.delivered.forEach((userId, ids) -> delivered.computeIfAbsent(userId, id -> new HashSet<>()).addAll(ids));
+            retry.seen.forEach((userId, ids) -> seen.computeIfAbsent(userId, id -> new HashSet<>()).addAll(ids));
+            attempts = Math.max(attempts, retry.attempts);
+            return this;
+        }
+    }
+}
@@ -2,40 +2,56 @@ package com.scutelnic.joinus.service;
 
 import com.scutelnic.joinus.dto.chat.ChatMessageResponse;
 import com.scutelnic.joinus.dto.chat.AnnouncementResponse;
+import com.scutelnic.joinus.dto.chat.ChatSyncResponse;
+import com.scutelnic.joinus.dto.chat.MessageReactionCountResponse;
+import com.scutelnic.joinus.dto.chat.MessageReactionOverlayEvent;
 import com.scutelnic.joinus.dto.chat.MessageReactionSummaryResponse;
+import com.scutelnic.joinus.dto.chat.MessageReactionSyncResponse;
+import com.scutelnic.joinus.dto.chat.MessageReactionToggleResult;
 import com.scutelnic.joinus.dto.chat.MessageReactionUpdateEvent;
 import com.scutelnic.joinus.dto.chat.MessageSeenSummaryResponse;
+import com.scutelnic.joinus.dto.chat.PollOptionCountResponse;
 import com.scutelnic.joinus.dto.chat.PollOptionSummaryResponse;
 import com.scutelnic.joinus.dto.chat.PollResponse;
 import com.scutelnic.joinus.dto.chat.PollUpdateEvent;
+import com.scutelnic.joinus.dto.chat.PollVoteEvent;
 import com.scutelnic.joinus.dto.chat.PollVoterResponse;
+import com.scutelnic.joinus.dto.chat.PollVotersPageResponse;
+import com.scutelnic.joinus.dto.chat.SeenBatchUpdateEvent;
 import com.scutelnic.joinus.dto.chat.SeenUpdateEvent;
 import com.scutelnic.joinus.dto.chat.SeenUserResponse;
 import com.scutelnic.joinus.entity.Activity;
 import com.scutelnic.joinus.entity.ActivityMessage;
 import com.scutelnic.joinus.entity.ActivityMessageReaction;
 import com.scutelnic.joinus.entity.ActivityMessageReactionType;
-import com.scutelnic.joinus.entity.ActivityMessageSeen;
 import com.scutelnic.joinus.entity.ActivityMessageType;
 import com.scutelnic.joinus.entity.ActivityPoll;
 import com.scutelnic.joinus.entity.ActivityPollOption;
 import com.scutelnic.joinus.entity.ActivityPollVote;
+import com.scutelnic.joinus.entity.ActivityReadWatermark;
 import com.scutelnic.joinus.entity.User;
-import com.scutelnic.joinus.repository.ActivityMessageDeliveredRepository;
+import com.scutelnic.joinus.repository.ActivityMessageReactionCountRepository;
 import com.scutelnic.joinus.repository.ActivityMessageReactionRepository;
 import com.scutelnic.joinus.repository.ActivityMessageRepository;
-import com.scutelnic.joinus.repository.ActivityMessageSeenRepository;
 import com.scutelnic.joinus.repository.ActivityPollOptionRepository;
 import com.scutelnic.joinus.repository.ActivityPollRepository;
 import com.scutelnic.joinus.repository.ActivityPollVoteRepository;
+import com.scutelnic.joinus.repository.ActivityReadWatermarkRepository;
+import com.scutelnic.joinus.repository.ActivityUnreadCounterRepository;
 import com.scutelnic.joinus.repository.ActivityRepository;
 import com.scutelnic.joinus.repository.UserRepository;
+import com.scutelnic.joinus.service.ActivityChatHistoryCache.CachedChatMessage;
+import com.scutelnic.joinus.service.ChatSessionPrincipalRegistry.ChatSessionPrincipal;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -59,6 +75,13 @@ public class ActivityChatService {
     private static final int MAX_POLL_QUESTION_LENGTH = 280;
     private static final int MAX_POLL_OPTION_LENGTH = 160;
     private static final int MAX_POLL_OPTIONS = 10;
+    private static final int MAX_POLL_VOTERS_PAGE_SIZE = 50;
+    private static final int MAX_SYNC_MESSAGES = 200;
+    private static final int MAX_SYNC_COUNTER_UPDATES = 500;
+    // seen_count is kept only for the newest MAX_SEEN_RANGE_MESSAGES messages of each type in an
+    // activity. Older counts stay at their last value, while "seen by" lists still come from watermarks.
+    private static final int MAX_SEEN_RANGE_MESSAGES = 500;
+    private static final Duration SYNC_CLOCK_SKEW = Duration.ofSeconds(5);
     private static final List<ActivityMessageReactionType> SUPPORTED_REACTIONS = List.of(
             ActivityMessageReactionType.LIKE,
             ActivityMessageReactionType.LOVE,
@@ -69,44 +92,56 @@ public class ActivityChatService {
     private final ActivityRepository activityRepository;
     private final UserRepository userRepository;
     private final ActivityMessageRepository messageRepository;
-    private final ActivityMessageDeliveredRepository deliveredRepository;
     private final ActivityMessageReactionRepository reactionRepository;
-    private final ActivityMessageSeenRepository seenRepository;
+    private final ActivityMessageReactionCountRepository reactionCountRepository;
     private final ActivityPollRepository pollRepository;
     private final ActivityPollOptionRepository pollOptionRepository;
     private final ActivityPollVoteRepository pollVoteRepository;
+    private final ActivityReadWatermarkRepository watermarkRepository;
+    private final ActivityUnreadCounterRepository unreadCounterRepository;
     private final ActivityParticipationService participationService;
+    private final ActivityChatHistoryCache historyCache;
+    private final ChatSessionPrincipalRegistry sessionPrincipalRegistry;
+    private final ActivityUnreadNotifier unreadNotifier;
 
     public ActivityChatService(ActivityRepository activityRepository,
                                UserRepository userRepository,
                                ActivityMessageRepository messageRepository,
-                               ActivityMessageDeliveredRepository deliveredRepository,
                                ActivityMessageReactionRepository reactionRepository,
-                               ActivityMessageSeenRepository seenRepository,
+                               ActivityMessageReactionCountRepository reactionCountRepository,
                                ActivityPollRepository pollRepository,
                                ActivityPollOptionRepository pollOptionRepository,
                                ActivityPollVoteRepository pollVoteRepository,
-                               ActivityParticipationService participationService) {
+                               ActivityReadWatermarkRepository watermarkRepository,
+                               ActivityUnreadCounterRepository unreadCounterRepository,
+                               ActivityParticipationService participationService,
+                               ActivityChatHistoryCache historyCache,
+                               ChatSessionPrincipalRegistry sessionPrincipalRegistry,
+                               ActivityUnreadNotifier unreadNotifier) {
         this.activityRepository = activityRepository;
         this.userRepository = userRepository;
         this.messageRepository = messageRepository;
-        this.deliveredRepository = deliveredRepository;
         this.reactionRepository = reactionRepository;
-        this.seenRepository = seenRepository;
+        this.reactionCountRepository = reactionCountRepository;
         this.pollRepository = pollRepository;
         this.pollOptionRepository = pollOptionRepository;
         this.pollVoteRepository = pollVoteRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.unreadCounterRepository = unreadCounterRepository;
         this.participationService = participationService;
+        this.historyCache = historyCache;
+        this.sessionPrincipalRegistry = sessionPrincipalRegistry;
+        this.unreadNotifier = unreadNotifier;
     }
 
     public List<PollResponse> getPolls(Long activityId, String userEmail) {
         requireChatAccess(activityId, userEmail);
-        User currentUser = requireUserByEmail(userEmail);
+        Long currentUserId = requireUserId(userEmail);
         List<ActivityPoll> polls = pollRepository.findByActivityIdOrderByCreatedAtDesc(activityId);
         if (polls.isEmpty()) {
             return List.of();
         }
-        return buildPollResponses(polls, currentUser.getId());
+        return buildPollResponses(polls, currentUserId);
     }
 
     @Transactional
@@ -143,12 +178,18 @@ public class ActivityChatService {
         announcement.setSender(activity.getCreator());
         announcement.setContent(DEFAULT_WELCOME_ANNOUNCEMENT);
         announcement.setMessageType(ActivityMessageType.ANNOUNCEMENT);
-        messageRepository.save(announcement);
+        ActivityMessage saved = messageRepository.save(announcement);
+        unreadCounterRepository.incrementForRecipients(
+                activityId,
+                activity.getCreator().getId(),
+                ActivityMessageType.ANNOUNCEMENT.name(),
+                saved.getCreatedAt()
+        );
+        unreadNotifier.notifyActivityMembers(activityId, activity.getCreator().getId(), ActivityUnreadNotifier.REASON_ANNOUNCEMENT);
     }
 
     public List<AnnouncementResponse> getAnnouncements(Long activityId, String userEmail) {
         requireChatAccess(activityId, userEmail);
-        ensureDefaultWelcomeAnnouncement(activityId);
 
         List<ActivityMessage> announcements = messageRepository
                 .findByActivityIdAndMessageTypeOrderByCreatedAtAscIdAsc(activityId, ActivityMessageType.ANNOUNCEMENT);
@@ -161,6 +202,7 @@ public class ActivityChatService {
                 .toList();
     }
 
+    @Transactional
     public AnnouncementResponse createAnnouncement(Long activityId, String userEmail, String content) {
         User author = requireActivityAuthor(activityId, userEmail);
         Activity activity = requireActivity(activityId);
@@ -172,6 +214,13 @@ public class ActivityChatService {
         announcement.setMessageType(ActivityMessageType.ANNOUNCEMENT);
 
         ActivityMessage saved = messageRepository.save(announcement);
+        unreadCounterRepository.incrementForRecipients(
+                activityId,
+                author.getId(),
+                ActivityMessageType.ANNOUNCEMENT.name(),
+                saved.getCreatedAt()
+        );
+        unreadNotifier.notifyActivityMembers(activityId, author.getId(), ActivityUnreadNotifier.REASON_ANNOUNCEMENT);
         return toAnnouncementResponse(saved);
     }
 
@@ -198,37 +247,73 @@ public class ActivityChatService {
             pollOptionRepository.save(option);
         }
 
-        PollResponse response = getPollResponseById(activityId, savedPoll.getId(), creator.getId());
+        PollResponse response = getPollResponseById(activityId, savedPoll.getId(), null);
         return new PollUpdateEvent("created", savedPoll.getId(), response);
     }
 
     @Transactional
-    public PollUpdateEvent votePoll(Long activityId, Long pollId, Long optionId, String userEmail) {
+    public PollVoteEvent votePoll(Long activityId, Long pollId, Long optionId, String userEmail) {
         if (pollId == null || optionId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "pollId and optionId are required");
         }
 
         requireChatAccess(activityId, userEmail);
-        User voter = requireUserByEmail(userEmail);
+        Long voterId = requireUserId(userEmail);
 
-        ActivityPoll poll = pollRepository.findByIdAndActivityId(pollId, activityId)
+        pollRepository.findByIdAndActivityId(pollId, activityId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Poll not found"));
 
         ActivityPollOption option = pollOptionRepository.findByIdAndPollId(optionId, pollId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Option does not belong to poll"));
 
-        ActivityPollVote vote = pollVoteRepository.findByPollIdAndVoterId(pollId, voter.getId()).orElse(null);
-        if (vote == null) {
-            vote = new ActivityPollVote();
-            vote.setPoll(poll);
-            vote.setVoter(voter);
+        // The insert settles a concurrent first vote, and the row lock serializes a voter's changes,
+        // so previousOptionId is always the committed choice the counters were built from.
+        LocalDateTime votedAt = LocalDateTime.now();
+        Long previousOptionId = null;
+        if (pollVoteRepository.insertIfAbsent(pollId, optionId, voterId, votedAt) == 0) {
+            ActivityPollVote vote = pollVoteRepository.findForUpdateByPollIdAndVoterId(pollId, voterId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Poll vote not found"));
+            previousOptionId = vote.getOption().getId();
+            vote.setOption(option);
+            vote.setVotedAt(votedAt);
+            pollVoteRepository.save(vote);
         }
-        vote.setOption(option);
-        vote.setVotedAt(LocalDateTime.now());
-        pollVoteRepository.save(vote);
+        if (!optionId.equals(previousOptionId)) {
+            if (previousOptionId != null) {
+                pollOptionRepository.adjustVoteCount(previousOptionId, -1);
+            }
+            pollOptionRepository.adjustVoteCount(optionId, 1);
+        }
+        pollRepository.touchUpdatedAt(pollId, votedAt);
+
+        List<PollOptionCountResponse> counts = pollOptionRepository.findVoteCountsByPollId(pollId)
+                .stream()
+                .map(row -> new PollOptionCountResponse(row.getOptionId(), row.getVoteCount() != null ? row.getVoteCount() : 0L))
+                .toList();
+        return new PollVoteEvent("voted", pollId, optionId, previousOptionId, counts);
+    }
+
+    public PollVotersPageResponse getPollVoters(Long activityId,
+                                                Long pollId,
+                                                Long optionId,
+                                                int page,
+                                                int requestedSize,
+                                                String userEmail) {
+        requireChatAccess(activityId, userEmail);
+        pollRepository.findByIdAndActivityId(pollId, activityId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Poll not found"));
+        pollOptionRepository.findByIdAndPollId(optionId, pollId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Option does not belong to poll"));
 
-        PollResponse response = getPollResponseById(activityId, pollId, voter.getId());
-        return new PollUpdateEvent("voted", pollId, response);
+        int size = Math.max(1, Math.min(MAX_POLL_VOTERS_PAGE_SIZE, requestedSize));
+        Slice<PollVoterResponse> voters = pollVoteRepository
+                .findByOptionIdOrderByVotedAtAscIdAsc(optionId, PageRequest.of(Math.max(0, page), size))
+                .map(vote -> new PollVoterResponse(
+                        vote.getVoter().getId(),
+                        vote.getVoter().getFullName(),
+                        vote.getVotedAt()
+                ));
+        return new PollVotersPageResponse(pollId, optionId, voters.getNumber(), voters.hasNext(), voters.getContent());
     }
 
     @Transactional
@@ -238,15 +323,14 @@ public class ActivityChatService {
         }
 
         requireChatAccess(activityId, userEmail);
-        User actor = requireActivityAuthor(activityId, userEmail);
+        requireActivityAuthor(activityId, userEmail);
 
-        ActivityPoll poll = pollRepository.findByIdAndActivityId(pollId, activityId)
+        pollRepository.findByIdAndActivityId(pollId, activityId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Poll not found"));
 
-        poll.setQuestion(normalizePollQuestion(question));
-        pollRepository.save(poll);
+        pollRepository.updateQuestion(pollId, normalizePollQuestion(question), LocalDateTime.now());
 
-        PollResponse response = getPollResponseById(activityId, pollId, actor.getId());
+        PollResponse response = getPollResponseById(activityId, pollId, null);
         return new PollUpdateEvent("updated", pollId, response);
     }
 
@@ -257,7 +341,7 @@ public class ActivityChatService {
         }
 
         requireChatAccess(activityId, userEmail);
-        User actor = requireUserByEmail(userEmail);
+        requireUserByEmail(userEmail);
 
         ActivityPoll poll = pollRepository.findByIdAndActivityId(pollId, activityId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Poll not found"));
@@ -284,8 +368,9 @@ public class ActivityChatService {
         option.setText(normalized);
         option.setPosition(nextPosition);
         pollOptionRepository.save(option);
+        pollRepository.touchUpdatedAt(pollId, LocalDateTime.now());
 
-        PollResponse response = getPollResponseById(activityId, pollId, actor.getId());
+        PollResponse response = getPollResponseById(activityId, pollId, null);
         return new PollUpdateEvent("option_added", pollId, response);
     }
 
@@ -300,7 +385,7 @@ public class ActivityChatService {
         }
 
         requireChatAccess(activityId, userEmail);
-        User actor = requireActivityAuthor(activityId, userEmail);
+        requireActivityAuthor(activityId, userEmail);
 
         pollRepository.findByIdAndActivityId(pollId, activityId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Poll not found"));
@@ -320,8 +405,9 @@ public class ActivityChatService {
 
         option.setText(normalized);
         pollOptionRepository.save(option);
+        pollRepository.touchUpdatedAt(pollId, LocalDateTime.now());
 
-        PollResponse response = getPollResponseById(activityId, pollId, actor.getId());
+        PollResponse response = getPollResponseById(activityId, pollId, null);
         return new PollUpdateEvent("option_updated", pollId, response);
     }
 
@@ -332,7 +418,7 @@ public class ActivityChatService {
         }
 
         requireChatAccess(activityId, userEmail);
-        User actor = requireActivityAuthor(activityId, userEmail);
+        requireActivityAuthor(activityId, userEmail);
 
         pollRepository.findByIdAndActivityId(pollId, activityId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Poll not found"));
@@ -355,8 +441,9 @@ public class ActivityChatService {
             remaining.get(i).setPosition(i);
         }
         pollOptionRepository.saveAll(remaining);
+        pollRepository.touchUpdatedAt(pollId, LocalDateTime.now());
 
-        PollResponse response = getPollResponseById(activityId, pollId, actor.getId());
+        PollResponse response = getPollResponseById(activityId, pollId, null);
         return new PollUpdateEvent("option_deleted", pollId, response);
     }
 
@@ -379,51 +466,188 @@ public class ActivityChatService {
         return new PollUpdateEvent("deleted", pollId, null);
     }
 
-    public List<ChatMessageResponse> getRecentMessages(Long activityId, int requestedLimit, String userEmail) {
+    public ChatSyncResponse sync(Long activityId, LocalDateTime since, Long afterMessageId, String userEmail) {
         requireChatAccess(activityId, userEmail);
-        requireActivity(activityId);
-        User currentUser = requireUserByEmail(userEmail);
-        int limit = Math.max(1, Math.min(MAX_HISTORY_LIMIT, requestedLimit));
-        List<ActivityMessage> messages = messageRepository.findByActivityIdOrderByCreatedAtDescIdDesc(
-            activityId,
-            PageRequest.of(0, limit)
-        ).stream()
-                .filter(message -> message.getMessageType() == null || message.getMessageType() == ActivityMessageType.CHAT)
-            .collect(Collectors.toCollection(ArrayList::new));
-        Collections.reverse(messages);
+        Long currentUserId = requireUserId(userEmail);
+        LocalDateTime cursor = LocalDateTime.now();
+        if (since == null) {
+            return new ChatSyncResponse(cursor, false, null, List.of(), List.of(), List.of(), List.of(),
+                    pollRepository.findIdsByActivityId(activityId), List.of());
+        }
 
-        List<Long> messageIds = messages.stream().map(ActivityMessage::getId).toList();
+        // Rows are stamped before their transaction commits, so re-read a small window behind the cursor.
+        LocalDateTime from = since.minus(SYNC_CLOCK_SKEW);
+
+        List<ActivityMessage> newMessages = messageRepository.findChatPageCreatedSince(
+                activityId,
+                from,
+                PageRequest.of(0, MAX_SYNC_MESSAGES + 1)
+        );
+        List<ActivityMessage> changedMessages = messageRepository.findChatPageWithCountersChangedSince(
+                activityId,
+                from,
+                afterMessageId != null ? afterMessageId : 0L,
+                PageRequest.of(0, MAX_SYNC_COUNTER_UPDATES + 1)
+        );
+        boolean countersTruncated = changedMessages.size() > MAX_SYNC_COUNTER_UPDATES;
+        boolean truncated = newMessages.size() > MAX_SYNC_MESSAGES || countersTruncated;
+        newMessages = newMessages.subList(0, Math.min(newMessages.size(), MAX_SYNC_MESSAGES));
+        changedMessages = changedMessages.subList(0, Math.min(changedMessages.size(), MAX_SYNC_COUNTER_UPDATES));
+        // Counter changes are scanned by id, so the client resumes with the same since and this id.
+        Long counterResumeId = countersTruncated ? changedMessages.get(changedMessages.size() - 1).getId() : null;
+
+        List<Long> messageIds = new ArrayList<>(newMessages.size() + changedMessages.size());
+        newMessages.forEach(message -> messageIds.add(message.getId()));
+        changedMessages.forEach(message -> messageIds.add(message.getId()));
         Map<Long, Map<ActivityMessageReactionType, Long>> reactionCountsByMessage = buildReactionCountsByMessage(messageIds);
+        Map<Long, ActivityMessageReactionType> currentUserReactionsByMessage = buildCurrentUserReactionsByMessage(
+                messageIds,
+                currentUserId
+        );
+
+        List<ChatMessageResponse> messages = newMessages.stream()
+                .map(message -> toMessageResponse(
+                        toCachedMessage(message, reactionCountsByMessage.getOrDefault(message.getId(), Map.of())),
+                        currentUserReactionsByMessage
+                ))
+                .toList();
+        List<SeenUpdateEvent> receiptUpdates = changedMessages.stream()
+                .map(message -> new SeenUpdateEvent(
+                        message.getId(),
+                        message.getDeliveredCount() != null ? message.getDeliveredCount() : 0L,
+                        message.getSeenCount() != null ? message.getSeenCount() : 0L
+                ))
+                .toList();
+        List<MessageReactionSyncResponse> reactionUpdates = changedMessages.stream()
+                .map(message -> {
+                    ActivityMessageReactionType currentUserReaction = currentUserReactionsByMessage.get(message.getId());
+                    return new MessageReactionSyncResponse(
+                            message.getId(),
+                            buildReactionSummaryForMessage(message.getId(), reactionCountsByMessage, currentUserReactionsByMessage),
+                            currentUserReaction != null ? currentUserReaction.name() : null
+                    );
+                })
+                .toList();
+
+        List<ActivityPoll> changedPolls = pollRepository.findChangedSince(activityId, from);
+        List<PollResponse> polls = changedPolls.isEmpty()
+                ? List.of()
+                : buildPollResponses(changedPolls, currentUserId);
+
+        List<AnnouncementResponse> announcements = messageRepository
+                .findByActivityIdAndMessageTypeAndCreatedAtAfterOrderByCreatedAtAscIdAsc(
+                        activityId,
+                        ActivityMessageType.ANNOUNCEMENT,
+                        from
+                )
+                .stream()
+                .map(this::toAnnouncementResponse)
+                .toList();
+
+        return new ChatSyncResponse(
+                cursor,
+                truncated,
+                counterResumeId,
+                messages,
+                receiptUpdates,
+                reactionUpdates,
+                polls,
+                pollRepository.findIdsByActivityId(activityId),
+                announcements
+        );
+    }
+
+    public List<ChatMessageResponse> getRecentMessages(Long activityId,
+                                                       int requestedLimit,
+                                                       Long beforeMessageId,
+                                                       String userEmail) {
+        requireChatAccess(activityId, userEmail);
+        Long currentUserId = requireUserId(userEmail);
+        int limit = Math.max(1, Math.min(MAX_HISTORY_LIMIT, requestedLimit));
+        List<CachedChatMessage> messages = historyCache.findPage(activityId, beforeMessageId, limit)
+                .orElseGet(() -> loadHistoryPage(activityId, beforeMessageId, limit));
+
+        List<Long> messageIds = messages.stream().map(CachedChatMessage::id).toList();
         Map<Long, ActivityMessageReactionType> currentUserReactionsByMessage = buildCurrentUserReactionsByMessage(
             messageIds,
-            currentUser.getId()
+            currentUserId
         );
 
         return messages.stream()
-            .map(message -> toMessageResponse(
-                message,
-                reactionCountsByMessage,
-                currentUserReactionsByMessage
-            ))
+            .map(message -> toMessageResponse(message, currentUserReactionsByMessage))
+                .toList();
+    }
+
+    public List<ChatMessageResponse> getMessagesAfterSeq(Long activityId,
+                                                         Long afterSeq,
+                                                         int requestedLimit,
+                                                         String userEmail) {
+        requireChatAccess(activityId, userEmail);
+        Long currentUserId = requireUserId(userEmail);
+        int limit = Math.max(1, Math.min(MAX_HISTORY_LIMIT, requestedLimit));
+        List<ActivityMessage> page = messageRepository.findChatPageByActivityIdAfterSeq(
+                activityId,
+                Math.max(0L, afterSeq),
+                PageRequest.of(0, limit)
+        );
+
+        List<Long> messageIds = page.stream().map(ActivityMessage::getId).toList();
+        Map<Long, Map<ActivityMessageReactionType, Long>> reactionCountsByMessage = buildReactionCountsByMessage(messageIds);
+        Map<Long, ActivityMessageReactionType> currentUserReactionsByMessage = buildCurrentUserReactionsByMessage(
+                messageIds,
+                currentUserId
+        );
+
+        return page.stream()
+                .map(message -> toMessageResponse(
+                        toCachedMessage(message, reactionCountsByMessage.getOrDefault(message.getId(), Map.of())),
+                        currentUserReactionsByMessage
+                ))
                 .toList();
     }
 
+    @Transactional
     public ChatMessageResponse sendMessage(Long activityId, String senderEmail, String content) {
         String normalizedContent = normalizeContent(content);
         requireChatAccess(activityId, senderEmail);
-        Activity activity = requireActivity(activityId);
-        User sender = requireUserByEmail(senderEmail);
+        ChatSessionPrincipal principal = sessionPrincipalRegistry.find(senderEmail).orElse(null);
+        User sender = principal != null
+                ? userRepository.getReferenceById(principal.userId())
+                : requireUserByEmail(senderEmail);
+        String senderName = principal != null && principal.fullName() != null ? principal.fullName() : sender.getFullName();
 
         ActivityMessage message = new ActivityMessage();
-        message.setActivity(activity);
+        message.setActivity(activityRepository.getReferenceById(activityId));
         message.setSender(sender);
         message.setContent(normalizedContent);
         message.setMessageType(ActivityMessageType.CHAT);
+        message.setSeq(activityRepository.nextMessageSeq(activityId));
         ActivityMessage saved = messageRepository.save(message);
-        return toMessageResponse(saved, Map.of(), Map.of());
+        unreadCounterRepository.incrementForRecipients(
+                activityId,
+                sender.getId(),
+                ActivityMessageType.CHAT.name(),
+                saved.getCreatedAt()
+        );
+        CachedChatMessage cached = new CachedChatMessage(
+                saved.getId(),
+                activityId,
+                saved.getSeq(),
+                sender.getId(),
+                senderName,
+                saved.getContent(),
+                saved.getCreatedAt(),
+                0L,
+                0L,
+                Map.of()
+        );
+        afterCommit(() -> historyCache.append(cached));
+        unreadNotifier.notifyActivityMembers(activityId, sender.getId(), ActivityUnreadNotifier.REASON_MESSAGE);
+        return toMessageResponse(cached, Map.of());
     }
 
-    public MessageReactionUpdateEvent toggleReaction(Long activityId, Long messageId, String reactionTypeValue, String userEmail) {
+    @Transactional
+    public MessageReactionToggleResult toggleReaction(Long activityId, Long messageId, String reactionTypeValue, String userEmail) {
         if (messageId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "messageId is required");
         }
@@ -434,7 +658,7 @@ public class ActivityChatService {
         }
 
         requireChatAccess(activityId, userEmail);
-        User user = requireUserByEmail(userEmail);
+        Long userId = requireUserId(userEmail);
         ActivityMessage message = messageRepository.findWithSenderAndActivityById(messageId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Message not found"));
 
@@ -444,70 +668,131 @@ public class ActivityChatService {
 
         ActivityMessageReactionType actorReactionType = reactionType;
 
-        ActivityMessageReaction existingReaction = reactionRepository
-                .findByMessageIdAndUserId(messageId, user.getId())
-                .orElse(null);
-
-        if (existingReaction != null && existingReaction.getReactionType() == reactionType) {
-            reactionRepository.delete(existingReaction);
-            actorReactionType = null;
-        } else if (existingReaction != null) {
-            existingReaction.setReactionType(reactionType);
-            existingReaction.setReactedAt(LocalDateTime.now());
-            reactionRepository.save(existingReaction);
+        // Same scheme as poll votes: the insert settles a concurrent first reaction, and the row lock
+        // makes repeated toggles by one user apply in order against the committed reaction type.
+        LocalDateTime reactedAt = LocalDateTime.now();
+        if (reactionRepository.insertIfAbsent(messageId, userId, reactionType.name(), reactedAt) > 0) {
+            reactionCountRepository.adjustTotal(messageId, reactionType.name(), 1);
         } else {
-            ActivityMessageReaction newReaction = new ActivityMessageReaction();
-            newReaction.setMessage(message);
-            newReaction.setUser(user);
-            newReaction.setReactionType(reactionType);
-            newReaction.setReactedAt(LocalDateTime.now());
-            reactionRepository.save(newReaction);
+            ActivityMessageReaction existingReaction = reactionRepository
+                    .findForUpdateByMessageIdAndUserId(messageId, userId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Reaction not found"));
+            if (existingReaction.getReactionType() == reactionType) {
+                reactionRepository.delete(existingReaction);
+                reactionCountRepository.adjustTotal(messageId, reactionType.name(), -1);
+                actorReactionType = null;
+            } else {
+                reactionCountRepository.adjustTotal(messageId, existingReaction.getReactionType().name(), -1);
+                reactionCountRepository.adjustTotal(messageId, reactionType.name(), 1);
+                existingReaction.setReactionType(reactionType);
+                existingReaction.setReactedAt(reactedAt);
+                reactionRepository.save(existingReaction);
+            }
         }
 
+        messageRepository.touchCountersUpdatedAt(messageId, LocalDateTime.now());
         Map<Long, Map<ActivityMessageReactionType, Long>> countsByMessage = buildReactionCountsByMessage(List.of(messageId));
-        Map<Long, ActivityMessageReactionType> currentUserReactions = actorReactionType != null
-            ? Map.of(messageId, actorReactionType)
-            : Map.of();
-
-        return new MessageReactionUpdateEvent(
-                messageId,
-                buildReactionSummaryForMessage(messageId, countsByMessage, currentUserReactions),
-                user.getId(),
-                actorReactionType != null ? actorReactionType.name() : null
+        Map<ActivityMessageReactionType, Long> messageCounts = countsByMessage.getOrDefault(messageId, Map.of());
+        afterCommit(() -> historyCache.patchReactionCounts(activityId, messageId, messageCounts));
+
+        List<MessageReactionCountResponse> reactions = SUPPORTED_REACTIONS.stream()
+                .map(type -> new MessageReactionCountResponse(type.name(), type.getEmoji(), messageCounts.getOrDefault(type, 0L)))
+                .toList();
+        return new MessageReactionToggleResult(
+                new MessageReactionUpdateEvent(messageId, reactions),
+                new MessageReactionOverlayEvent(
+                        activityId,
+                        messageId,
+                        actorReactionType != null ? actorReactionType.name() : null
+                )
         );
     }
 
-    public SeenUpdateEvent markDelivered(Long activityId, Long messageId, String userEmail) {
+    public Long resolveReceiptUserId(Long activityId, Long messageId, String userEmail) {
         if (messageId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "messageId is required");
         }
 
         requireChatAccess(activityId, userEmail);
-        User user = requireUserByEmail(userEmail);
-        ActivityMessage message = messageRepository.findWithSenderAndActivityById(messageId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Message not found"));
+        return requireUserId(userEmail);
+    }
 
-        if (!message.getActivity().getId().equals(activityId)) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Message does not belong to activity");
+    @Transactional
+    public List<SeenUpdateEvent> applyReceiptBatch(Long activityId,
+                                                   Map<Long, Set<Long>> deliveredMessageIdsByUser,
+                                                   Map<Long, Set<Long>> seenMessageIdsByUser) {
+        Set<Long> requestedMessageIds = new HashSet<>();
+        deliveredMessageIdsByUser.values().forEach(requestedMessageIds::addAll);
+        seenMessageIdsByUser.values().forEach(requestedMessageIds::addAll);
+        if (requestedMessageIds.isEmpty()) {
+            return List.of();
         }
 
-        Long senderId = message.getSender().getId();
-        if (!senderId.equals(user.getId())) {
-            deliveredRepository.insertIgnoreDuplicate(messageId, user.getId(), LocalDateTime.now());
+        Map<Long, ActivityMessage> messagesById = messageRepository
+                .findByActivityIdAndIdIn(activityId, new ArrayList<>(requestedMessageIds))
+                .stream()
+                .collect(Collectors.toMap(ActivityMessage::getId, message -> message));
+        if (messagesById.isEmpty()) {
+            return List.of();
         }
 
-        long deliveredCount = deliveredRepository.countByMessageIdAndUserIdNot(messageId, senderId);
-        long seenCount = seenRepository.countByMessageIdAndUserIdNot(messageId, senderId);
-        return new SeenUpdateEvent(messageId, deliveredCount, seenCount);
+        Map<Long, Set<Long>> receivedMessageIdsByUser = new LinkedHashMap<>();
+        deliveredMessageIdsByUser.forEach((userId, ids) ->
+                receivedMessageIdsByUser.computeIfAbsent(userId, key -> new HashSet<>()).addAll(ids));
+        seenMessageIdsByUser.forEach((userId, ids) ->
+                receivedMessageIdsByUser.computeIfAbsent(userId, key -> new HashSet<>()).addAll(ids));
+
+        List<Long> deliveredMessageIds = new ArrayList<>();
+        List<Long> deliveredUserIds = new ArrayList<>();
+        receivedMessageIdsByUser.forEach((userId, ids) -> {
+            for (Long messageId : ids) {
+                ActivityMessage message = messagesById.get(messageId);
+                if (message == null || message.getSender().getId().equals(userId)) {
+                    continue;
+                }
+                deliveredMessageIds.add(messageId);
+                deliveredUserIds.add(userId);
+            }
+        });
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!deliveredMessageIds.isEmpty()) {
+            messageRepository.insertDeliveredReceipts(
+                    deliveredMessageIds.toArray(Long[]::new),
+                    deliveredUserIds.toArray(Long[]::new),
+                    now
+            );
+        }
+
+        seenMessageIdsByUser.forEach((userId, ids) -> {
+            Map<ActivityMessageType, Long> latestSeenByType = new EnumMap<>(ActivityMessageType.class);
+            for (Long messageId : ids) {
+                ActivityMessage message = messagesById.get(messageId);
+                if (message == null || message.getSender().getId().equals(userId)) {
+                    continue;
+                }
+                latestSeenByType.merge(resolveMessageType(message), messageId, Math::max);
+            }
+            latestSeenByType.forEach((messageType, upToMessageId) ->
+                    advanceReadWatermark(activityId, userId, messageType, upToMessageId, now));
+        });
+
+        List<SeenUpdateEvent> updates = messageRepository.findReceiptCountsByIdIn(new ArrayList<>(messagesById.keySet()))
+                .stream()
+                .map(this::toSeenUpdateEvent)
+                .toList();
+        afterCommit(() -> historyCache.patchReceiptCounts(activityId, updates));
+        return updates;
     }
 
-    public SeenUpdateEvent markSeen(Long activityId, Long messageId, String userEmail) {
+    @Transactional
+    public SeenBatchUpdateEvent markSeenUpTo(Long activityId, Long messageId, String userEmail) {
         if (messageId == null) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "messageId is required");
         }
 
         requireChatAccess(activityId, userEmail);
-        User user = requireUserByEmail(userEmail);
+        Long userId = requireUserId(userEmail);
         ActivityMessage message = messageRepository.findWithSenderAndActivityById(messageId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Message not found"));
 
@@ -515,30 +800,48 @@ public class ActivityChatService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Message does not belong to activity");
         }
 
-        Long senderId = message.getSender().getId();
-
-        if (!senderId.equals(user.getId())) {
-            deliveredRepository.insertIgnoreDuplicate(messageId, user.getId(), LocalDateTime.now());
-            seenRepository.insertIgnoreDuplicate(messageId, user.getId(), LocalDateTime.now());
+        ActivityMessageType messageType = resolveMessageType(message);
+        Long markedAfterId = advanceReadWatermark(activityId, userId, messageType, messageId, LocalDateTime.now());
+        if (markedAfterId == null) {
+            return new SeenBatchUpdateEvent(activityId, List.of());
         }
 
-        long deliveredCount = deliveredRepository.countByMessageIdAndUserIdNot(messageId, senderId);
-        long seenCount = seenRepository.countByMessageIdAndUserIdNot(messageId, senderId);
-        return new SeenUpdateEvent(messageId, deliveredCount, seenCount);
+        List<SeenUpdateEvent> updates = messageRepository
+                .findReceiptCountsInRange(activityId, userId, messageType.name(), markedAfterId, messageId)
+                .stream()
+                .map(this::toSeenUpdateEvent)
+                .toList();
+        return new SeenBatchUpdateEvent(activityId, updates);
     }
 
     @Transactional
     public void markAllMessagesSeen(Long activityId, String userEmail) {
         requireChatAccess(activityId, userEmail);
-        User user = requireUserByEmail(userEmail);
-        seenRepository.markAllMessagesSeenForActivity(activityId, user.getId(), LocalDateTime.now());
+        Long userId = requireUserId(userEmail);
+        Long latestMessageId = messageRepository.findMaxIdByActivityIdAndMessageType(
+                activityId,
+                ActivityMessageType.CHAT.name()
+        );
+        advanceReadWatermark(activityId, userId, ActivityMessageType.CHAT, latestMessageId, LocalDateTime.now());
     }
 
     @Transactional
     public void markAllAnnouncementsSeen(Long activityId, String userEmail) {
         requireChatAccess(activityId, userEmail);
-        User user = requireUserByEmail(userEmail);
-        seenRepository.markAllAnnouncementsSeenForActivity(activityId, user.getId(), LocalDateTime.now());
+        Long userId = requireUserId(userEmail);
+        Long latestAnnouncementId = messageRepository.findMaxIdByActivityIdAndMessageType(
+                activityId,
+                ActivityMessageType.ANNOUNCEMENT.name()
+        );
+        advanceReadWatermark(activityId, userId, ActivityMessageType.ANNOUNCEMENT, latestAnnouncementId, LocalDateTime.now());
+    }
+
+    @Transactional
+    public int reconcileReceiptCounts(Long activityId, LocalDateTime since) {
+        // Same ordering as recomputeUnreadCounter: lock the rows, then recount from a snapshot that
+        // already includes every receipt increment committed before the lock was granted.
+        messageRepository.lockReceiptCountersToReconcile(activityId, since);
+        return messageRepository.reconcileReceiptCountsSince(activityId, since, MAX_SEEN_RANGE_MESSAGES);
     }
 
     public List<SeenUserResponse> getSeenUsers(Long messageId, String userEmail) {
@@ -550,12 +853,12 @@ public class ActivityChatService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Message not found"));
         requireChatAccess(message.getActivity().getId(), userEmail);
 
-        Long senderId = message.getSender().getId();
-        return seenRepository.findByMessageIdAndUserIdNotOrderBySeenAtAsc(message.getId(), senderId)
+        return watermarkRepository
+                .findSeenUsersByActivityIdAndMessageIds(message.getActivity().getId(), List.of(message.getId()))
                 .stream()
                 .map(seen -> new SeenUserResponse(
-                        seen.getUser().getId(),
-                        seen.getUser().getFullName(),
+                        seen.getUserId(),
+                        seen.getFullName(),
                         seen.getSeenAt()
                 ))
                 .toList();
@@ -563,7 +866,6 @@ public class ActivityChatService {
 
     public List<MessageSeenSummaryResponse> getSeenUsersForMessages(Long activityId, List<Long> messageIds, String userEmail) {
         requireChatAccess(activityId, userEmail);
-        requireActivity(activityId);
         if (messageIds == null || messageIds.isEmpty()) {
             return List.of();
         }
@@ -584,24 +886,17 @@ public class ActivityChatService {
             seenByMessage.put(messageId, new ArrayList<>());
         }
 
-        List<ActivityMessageSeen> seenEntries = seenRepository
-                .findByMessageActivityIdAndMessageIdInOrderByMessageIdAscSeenAtAsc(activityId, validMessageIds);
+        List<ActivityReadWatermarkRepository.MessageSeenUserView> seenEntries = watermarkRepository
+                .findSeenUsersByActivityIdAndMessageIds(activityId, validMessageIds);
 
-        for (ActivityMessageSeen seen : seenEntries) {
-            ActivityMessage message = seen.getMessage();
-            if (message == null || message.getSender() == null) {
-                continue;
-            }
-            if (seen.getUser().getId().equals(message.getSender().getId())) {
-                continue;
-            }
-            List<SeenUserResponse> viewers = seenByMessage.get(message.getId());
+        for (ActivityReadWatermarkRepository.MessageSeenUserView seen : seenEntries) {
+            List<SeenUserResponse> viewers = seenByMessage.get(seen.getMessageId());
             if (viewers == null) {
                 continue;
             }
             viewers.add(new SeenUserResponse(
-                    seen.getUser().getId(),
-                    seen.getUser().getFullName(),
+                    seen.getUserId(),
+                    seen.getFullName(),
                     seen.getSeenAt()
             ));
         }
@@ -611,24 +906,177 @@ public class ActivityChatService {
                 .toList();
     }
 
-    private ChatMessageResponse toMessageResponse(ActivityMessage message,
-                                                  Map<Long, Map<ActivityMessageReactionType, Long>> reactionCountsByMessage,
-                                                  Map<Long, ActivityMessageReactionType> currentUserReactionsByMessage) {
-        long deliveredCount = deliveredRepository.countByMessageIdAndUserIdNot(message.getId(), message.getSender().getId());
-        long seenCount = seenRepository.countByMessageIdAndUserIdNot(message.getId(), message.getSender().getId());
-        return new ChatMessageResponse(
+    private List<CachedChatMessage> loadHistoryPage(Long activityId, Long beforeMessageId, int limit) {
+        if (beforeMessageId == null) {
+            long stamp = historyCache.mutationStamp(activityId);
+            int windowSize = Math.max(limit, historyCache.getWindowSize());
+            List<CachedChatMessage> window = toCachedMessages(
+                    messageRepository.findChatPageByActivityId(activityId, PageRequest.of(0, windowSize))
+            );
+            historyCache.store(activityId, stamp, window, window.size() < windowSize);
+            return List.copyOf(window.subList(Math.max(0, window.size() - limit), window.size()));
+        }
+
+        ActivityMessage cursor = messageRepository.findById(beforeMessageId)
+                .filter(message -> message.getActivity().getId().equals(activityId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid history cursor"));
+        return toCachedMessages(messageRepository.findChatPageByActivityIdBeforeCursor(
+                activityId,
+                cursor.getCreatedAt(),
+                cursor.getId(),
+                PageRequest.of(0, limit)
+        ));
+    }
+
+    private List<CachedChatMessage> toCachedMessages(List<ActivityMessage> newestFirst) {
+        List<ActivityMessage> messages = new ArrayList<>(newestFirst);
+        Collections.reverse(messages);
+
+        List<Long> messageIds = messages.stream().map(ActivityMessage::getId).toList();
+        Map<Long, Map<ActivityMessageReactionType, Long>> reactionCountsByMessage = buildReactionCountsByMessage(messageIds);
+        return messages.stream()
+                .map(message -> toCachedMessage(message, reactionCountsByMessage.getOrDefault(message.getId(), Map.of())))
+                .toList();
+    }
+
+    private CachedChatMessage toCachedMessage(ActivityMessage message,
+                                              Map<ActivityMessageReactionType, Long> reactionCounts) {
+        return new CachedChatMessage(
                 message.getId(),
                 message.getActivity().getId(),
+                message.getSeq(),
                 message.getSender().getId(),
                 message.getSender().getFullName(),
                 message.getContent(),
                 message.getCreatedAt(),
-                deliveredCount,
-                seenCount,
-                buildReactionSummaryForMessage(message.getId(), reactionCountsByMessage, currentUserReactionsByMessage),
-                currentUserReactionsByMessage.get(message.getId()) != null
-                        ? currentUserReactionsByMessage.get(message.getId()).name()
-                        : null
+                message.getDeliveredCount() != null ? message.getDeliveredCount() : 0L,
+                message.getSeenCount() != null ? message.getSeenCount() : 0L,
+                reactionCounts
+        );
+    }
+
+    private ChatMessageResponse toMessageResponse(CachedChatMessage message,
+                                                  Map<Long, ActivityMessageReactionType> currentUserReactionsByMessage) {
+        ActivityMessageReactionType currentUserReaction = currentUserReactionsByMessage.get(message.id());
+        return new ChatMessageResponse(
+                message.id(),
+                message.activityId(),
+                message.seq(),
+                message.senderId(),
+                message.senderName(),
+                message.content(),
+                message.createdAt(),
+                message.deliveredCount(),
+                message.seenCount(),
+                buildReactionSummary(message.reactionCounts(), currentUserReaction),
+                currentUserReaction != null ? currentUserReaction.name() : null
+        );
+    }
+
+    private Long advanceReadWatermark(Long activityId,
+                                      Long userId,
+                                      ActivityMessageType messageType,
+                                      Long upToMessageId,
+                                      LocalDateTime seenAt) {
+        if (upToMessageId == null) {
+            return null;
+        }
+
+        watermarkRepository.insertIfAbsent(activityId, userId, seenAt);
+        ActivityReadWatermark watermark = watermarkRepository.findForUpdateByActivityIdAndUserId(activityId, userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT, "Read watermark not found"));
+
+        boolean announcements = messageType == ActivityMessageType.ANNOUNCEMENT;
+        Long current = announcements ? watermark.getLastSeenAnnouncementId() : watermark.getLastSeenMessageId();
+        long lastSeenId = current != null ? current : 0L;
+        if (upToMessageId <= lastSeenId) {
+            return null;
+        }
+
+        long markedAfterId = recentRangeStart(activityId, messageType, lastSeenId, upToMessageId);
+        messageRepository.markRangeSeenAndDelivered(activityId, userId, messageType.name(), markedAfterId, upToMessageId, seenAt);
+        if (announcements) {
+            watermark.setLastSeenAnnouncementId(upToMessageId);
+        } else {
+            watermark.setLastSeenMessageId(upToMessageId);
+        }
+        watermark.setLastSeenAt(seenAt);
+        watermarkRepository.saveAndFlush(watermark);
+        recomputeUnreadCounter(activityId, userId);
+        refreshCachedReceiptCounts(activityId, userId, messageType, markedAfterId, upToMessageId);
+        unreadNotifier.notifyUser(userId, activityId, ActivityUnreadNotifier.REASON_SEEN);
+        return markedAfterId;
+    }
+
+    private long recentRangeStart(Long activityId, ActivityMessageType messageType, long lastSeenId, Long upToMessageId) {
+        // Ids are global, so a gap this small cannot hold more messages than the window.
+        if (upToMessageId - lastSeenId <= MAX_SEEN_RANGE_MESSAGES) {
+            return lastSeenId;
+        }
+        // Older messages are covered by the watermark alone; only the recent window gets receipt rows and counters.
+        Long windowStart = messageRepository.findIdBeforeRecentWindow(
+                activityId,
+                messageType.name(),
+                upToMessageId,
+                MAX_SEEN_RANGE_MESSAGES
+        );
+        return windowStart != null ? Math.max(lastSeenId, windowStart) : lastSeenId;
+    }
+
+    private void refreshCachedReceiptCounts(Long activityId,
+                                            Long userId,
+                                            ActivityMessageType messageType,
+                                            long afterMessageId,
+                                            Long upToMessageId) {
+        Long oldestCachedMessageId = historyCache.oldestCachedMessageId(activityId);
+        if (messageType != ActivityMessageType.CHAT || oldestCachedMessageId == null || upToMessageId < oldestCachedMessageId) {
+            return;
+        }
+
+        List<SeenUpdateEvent> updates = messageRepository
+                .findReceiptCountsInRange(
+                        activityId,
+                        userId,
+                        messageType.name(),
+                        Math.max(afterMessageId, oldestCachedMessageId - 1),
+                        upToMessageId
+                )
+                .stream()
+                .map(this::toSeenUpdateEvent)
+                .toList();
+        afterCommit(() -> historyCache.patchReceiptCounts(activityId, updates));
+    }
+
+    private void recomputeUnreadCounter(Long activityId, Long userId) {
+        // Holding the row lock first means the recount sees every increment committed before it,
+        // and increments that commit later wait and then apply on top of it.
+        unreadCounterRepository.insertIfAbsent(activityId, userId);
+        unreadCounterRepository.findForUpdateByActivityIdAndUserId(activityId, userId);
+        unreadCounterRepository.recompute(activityId, userId);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private ActivityMessageType resolveMessageType(ActivityMessage message) {
+        return message.getMessageType() != null ? message.getMessageType() : ActivityMessageType.CHAT;
+    }
+
+    private SeenUpdateEvent toSeenUpdateEvent(ActivityMessageRepository.MessageReceiptCountsProjection counts) {
+        return new SeenUpdateEvent(
+                counts.getMessageId(),
+                counts.getDeliveredCount() != null ? counts.getDeliveredCount() : 0L,
+                counts.getSeenCount() != null ? counts.getSeenCount() : 0L
         );
     }
 
@@ -642,8 +1090,8 @@ public class ActivityChatService {
             result.put(messageId, new EnumMap<>(ActivityMessageReactionType.class));
         }
 
-        List<ActivityMessageReactionRepository.MessageReactionCountView> rows = reactionRepository.countGroupedByMessageIds(messageIds);
-        for (ActivityMessageReactionRepository.MessageReactionCountView row : rows) {
+        List<ActivityMessageReactionCountRepository.MessageReactionCountView> rows = reactionCountRepository.findCountsByMessageIds(messageIds);
+        for (ActivityMessageReactionCountRepository.MessageReactionCountView row : rows) {
             Map<ActivityMessageReactionType, Long> messageCounts = result.get(row.getMessageId());
             if (messageCounts == null) {
                 continue;
@@ -671,12 +1119,16 @@ public class ActivityChatService {
             Map<Long, Map<ActivityMessageReactionType, Long>> reactionCountsByMessage,
             Map<Long, ActivityMessageReactionType> currentUserReactionsByMessage
     ) {
-        Map<ActivityMessageReactionType, Long> counts = reactionCountsByMessage.getOrDefault(
-                messageId,
-                Map.of()
+        return buildReactionSummary(
+                reactionCountsByMessage.getOrDefault(messageId, Map.of()),
+                currentUserReactionsByMessage.get(messageId)
         );
-        ActivityMessageReactionType currentUserReaction = currentUserReactionsByMessage.get(messageId);
+    }
 
+    private List<MessageReactionSummaryResponse> buildReactionSummary(
+            Map<ActivityMessageReactionType, Long> counts,
+            ActivityMessageReactionType currentUserReaction
+    ) {
         return SUPPORTED_REACTIONS.stream()
                 .map(type -> new MessageReactionSummaryResponse(
                         type.name(),
@@ -734,9 +1186,24 @@ public class ActivityChatService {
     }
 
     private void requireChatAccess(Long activityId, String userEmail) {
+        ChatSessionPrincipal principal = sessionPrincipalRegistry.find(userEmail).orElse(null);
+        if (principal != null && principal.canAccess(activityId)) {
+            return;
+        }
+
+        long revision = principal != null ? principal.revision() : 0L;
         if (!participationService.canAccessChat(activityId, userEmail)) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Nu ai acces la chat pentru aceasta activitate");
         }
+        if (principal != null) {
+            sessionPrincipalRegistry.grantAccessIfUnchanged(principal, revision, activityId);
+        }
+    }
+
+    private Long requireUserId(String userEmail) {
+        return sessionPrincipalRegistry.find(userEmail)
+                .map(ChatSessionPrincipal::userId)
+                .orElseGet(() -> requireUserByEmail(userEmail).getId());
     }
 
     private User requireActivityAuthor(Long activityId, String userEmail) {
@@ -757,7 +1224,6 @@ public class ActivityChatService {
     private List<PollResponse> buildPollResponses(List<ActivityPoll> polls, Long currentUserId) {
         List<Long> pollIds = polls.stream().map(ActivityPoll::getId).toList();
         List<ActivityPollOption> options = pollOptionRepository.findByPollIdInOrderByPollIdAscPositionAsc(pollIds);
-        List<ActivityPollVote> votes = pollVoteRepository.findByPollIdInOrderByVotedAtAsc(pollIds);
 
         Map<Long, List<ActivityPollOption>> optionsByPoll = new LinkedHashMap<>();
         for (ActivityPoll poll : polls) {
@@ -767,34 +1233,10 @@ public class ActivityChatService {
             optionsByPoll.computeIfAbsent(option.getPoll().getId(), key -> new ArrayList<>()).add(option);
         }
 
-        Map<Long, Map<Long, List<PollVoterResponse>>> votersByPollAndOption = new LinkedHashMap<>();
-        Map<Long, Map<Long, Long>> countsByPollAndOption = new LinkedHashMap<>();
         Map<Long, Long> currentVoteByPoll = new LinkedHashMap<>();
-
-        for (ActivityPoll poll : polls) {
-            votersByPollAndOption.put(poll.getId(), new LinkedHashMap<>());
-            countsByPollAndOption.put(poll.getId(), new LinkedHashMap<>());
-        }
-
-        for (ActivityPollVote vote : votes) {
-            Long pollId = vote.getPoll().getId();
-            Long optionId = vote.getOption().getId();
-
-            countsByPollAndOption
-                    .computeIfAbsent(pollId, key -> new LinkedHashMap<>())
-                    .merge(optionId, 1L, Long::sum);
-
-            votersByPollAndOption
-                    .computeIfAbsent(pollId, key -> new LinkedHashMap<>())
-                    .computeIfAbsent(optionId, key -> new ArrayList<>())
-                    .add(new PollVoterResponse(
-                            vote.getVoter().getId(),
-                            vote.getVoter().getFullName(),
-                            vote.getVotedAt()
-                    ));
-
-            if (currentUserId != null && currentUserId.equals(vote.getVoter().getId())) {
-                currentVoteByPoll.put(pollId, optionId);
+        if (currentUserId != null) {
+            for (ActivityPollVoteRepository.VoterChoiceView choice : pollVoteRepository.findChoicesByPollIdsAndVoterId(pollIds, currentUserId)) {
+                currentVoteByPoll.put(choice.getPollId(), choice.getOptionId());
             }
         }
 
@@ -807,17 +1249,11 @@ public class ActivityChatService {
             List<ActivityPollOption> pollOptions = optionsByPoll.getOrDefault(pollId, List.of());
             for (ActivityPollOption option : pollOptions) {
                 Long optionId = option.getId();
-                long count = countsByPollAndOption.getOrDefault(pollId, Map.of()).getOrDefault(optionId, 0L);
-                List<PollVoterResponse> voters = votersByPollAndOption
-                        .getOrDefault(pollId, Map.of())
-                        .getOrDefault(optionId, List.of());
-
                 optionResponses.add(new PollOptionSummaryResponse(
                         optionId,
                         option.getText(),
-                        count,
-                        currentOptionId != null && currentOptionId.equals(optionId),
-                        List.copyOf(voters)
+                        option.getVoteCount() != null ? option.getVoteCount() : 0L,
+                        currentOptionId != null && currentOptionId.equals(optionId)
                 ));
             }
 
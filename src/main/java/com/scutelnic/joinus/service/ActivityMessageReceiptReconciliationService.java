@@ -0,0 +1,106 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.repository.ActivityMessageReactionCountRepository;
+import com.scutelnic.joinus.repository.ActivityMessageRepository;
+import com.scutelnic.joinus.repository.ActivityPollOptionRepository;
+import com.scutelnic.joinus.repository.ActivityUnreadCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Service
+public class ActivityMessageReceiptReconciliationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityMessageReceiptReconciliationService.class);
+
+    private final ActivityMessageRepository messageRepository;
+    private final ActivityChatService chatService;
+    private final ActivityMessageReactionCountRepository reactionCountRepository;
+    private final ActivityPollOptionRepository pollOptionRepository;
+    private final ActivityUnreadCounterRepository unreadCounterRepository;
+    private final Duration window;
+
+    public ActivityMessageReceiptReconciliationService(ActivityMessageRepository messageRepository,
+                                                       ActivityChatService chatService,
+                                                       ActivityMessageReactionCountRepository reactionCountRepository,
+                                                       ActivityPollOptionRepository pollOptionRepository,
+                                                       ActivityUnreadCounterRepository unreadCounterRepository,
+                                                       @Value("${joinus.chat.receipt-reconciliation.window:P7D}") Duration window) {
+        this.messageRepository = messageRepository;
+        this.chatService = chatService;
+        this.reactionCountRepository = reactionCountRepository;
+        this.pollOptionRepository = pollOptionRepository;
+        this.unreadCounterRepository = unreadCounterRepository;
+        this.window = window;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        if (!reactionCountRepository.existsAny()) {
+            int backfilled = reactionCountRepository.reconcileTotalsSince(LocalDateTime.of(1970, 1, 1, 0, 0));
+            log.info("Backfilled {} reaction counters", backfilled);
+        }
+        int backfilledVotes = pollOptionRepository.backfillUninitializedVoteCounts();
+        if (backfilledVotes > 0) {
+            log.info("Backfilled {} poll option vote counters", backfilledVotes);
+        }
+        reconcileRecentMessages();
+        if (!unreadCounterRepository.existsAny()) {
+            int backfilledUnread = unreadCounterRepository.reconcileSince(LocalDateTime.of(1970, 1, 1, 0, 0));
+            log.info("Backfilled {} unread counters", backfilledUnread);
+        } else {
+            reconcileUnreadCounters();
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${joinus.chat.receipt-reconciliation.interval:PT1H}",
+            fixedDelayString = "${joinus.chat.receipt-reconciliation.interval:PT1H}"
+    )
+    public void reconcileRecentMessages() {
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        int repaired = 0;
+        for (Long activityId : messageRepository.findActivityIdsWithReceiptCountersToReconcile(since)) {
+            try {
+                repaired += chatService.reconcileReceiptCounts(activityId, since);
+            } catch (RuntimeException ex) {
+                // Row locks can deadlock against a concurrent range update; the next run retries.
+                log.warn("Skipped receipt counter reconciliation for activity {}", activityId, ex);
+            }
+        }
+        if (repaired > 0) {
+            log.info("Reconciled receipt counters for {} chat messages", repaired);
+        }
+
+        int repairedReactions = reactionCountRepository.reconcileTotalsSince(since)
+                + reactionCountRepository.resetOrphanedTotalsSince(since);
+        if (repairedReactions > 0) {
+            log.info("Reconciled {} reaction counters", repairedReactions);
+        }
+
+        int repairedVotes = pollOptionRepository.reconcileVoteCountsSince(since);
+        if (repairedVotes > 0) {
+            log.info("Reconciled {} poll option vote counters", repairedVotes);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${joinus.chat.unread-counter-reconciliation.interval:PT6H}",
+            fixedDelayString = "${joinus.chat.unread-counter-reconciliation.interval:PT6H}"
+    )
+    public void reconcileUnreadCounters() {
+        LocalDateTime since = LocalDateTime.now().minus(window);
+        int repaired = unreadCounterRepository.reconcileSince(since);
+        int removed = unreadCounterRepository.deleteForFormerMembersSince(since);
+        if (repaired > 0 || removed > 0) {
+            log.info("Reconciled {} unread counters and removed {} for former members", repaired, removed);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.scutelnic.joinus.entity.ParticipationStatus;
 import com.scutelnic.joinus.entity.User;
 import com.scutelnic.joinus.repository.ActivityParticipationRepository;
 import com.scutelnic.joinus.repository.ActivityRepository;
+import com.scutelnic.joinus.repository.ActivityUnreadCounterRepository;
 import com.scutelnic.joinus.repository.UserRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -24,13 +25,25 @@ public class ActivityParticipationService {
     private final ActivityRepository activityRepository;
     private final ActivityParticipationRepository participationRepository;
     private final UserRepository userRepository;
+    private final ActivityUnreadCounterRepository unreadCounterRepository;
+    private final ChatSessionPrincipalRegistry sessionPrincipalRegistry;
+    private final AccessibleActivityCache accessibleActivityCache;
+    private final ActivityUnreadNotifier unreadNotifier;
 
     public ActivityParticipationService(ActivityRepository activityRepository,
                                         ActivityParticipationRepository participationRepository,
-                                        UserRepository userRepository) {
+                                        UserRepository userRepository,
+                                        ActivityUnreadCounterRepository unreadCounterRepository,
+                                        ChatSessionPrincipalRegistry sessionPrincipalRegistry,
+                                        AccessibleActivityCache accessibleActivityCache,
+                                        ActivityUnreadNotifier unreadNotifier) {
         this.activityRepository = activityRepository;
         this.participationRepository = participationRepository;
         this.userRepository = userRepository;
+        this.unreadCounterRepository = unreadCounterRepository;
+        this.sessionPrincipalRegistry = sessionPrincipalRegistry;
+        this.accessibleActivityCache = accessibleActivityCache;
+        this.unreadNotifier = unreadNotifier;
     }
 
     @Transactional
@@ -42,9 +55,13 @@ public class ActivityParticipationService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Creatorul este deja participant");
         }
 
-        return participationRepository.findByActivityIdAndUserId(activityId, user.getId())
+        ActivityParticipation request = participationRepository.findByActivityIdAndUserId(activityId, user.getId())
                 .map(existing -> updateExistingRequest(existing))
                 .orElseGet(() -> createRequest(activity, user));
+        if (request.getStatus() == ParticipationStatus.PENDING && activity.getCreator() != null) {
+            unreadNotifier.notifyUser(activity.getCreator().getId(), activityId, ActivityUnreadNotifier.REASON_PARTICIPATION);
+        }
+        return request;
     }
 
     @Transactional
@@ -68,6 +85,11 @@ public class ActivityParticipationService {
         request.setStatus(ParticipationStatus.APPROVED);
         request.setRespondedAt(LocalDateTime.now());
         participationRepository.save(request);
+        recomputeUnreadCounter(activityId, request.getUser().getId());
+        accessibleActivityCache.invalidateUser(request.getUser().getId());
+        sessionPrincipalRegistry.grantAccess(request.getUser().getId(), activityId);
+        unreadNotifier.notifyUser(request.getUser().getId(), activityId, ActivityUnreadNotifier.REASON_PARTICIPATION);
+        unreadNotifier.notifyUser(organizer.getId(), activityId, ActivityUnreadNotifier.REASON_PARTICIPATION);
     }
 
     @Transactional
@@ -83,10 +105,17 @@ public class ActivityParticipationService {
             return;
         }
 
+        boolean wasApproved = request.getStatus() == ParticipationStatus.APPROVED;
         int denialCount = incrementDenialCount(request);
         request.setStatus(denialCount >= 2 ? ParticipationStatus.BLOCKED : ParticipationStatus.REJECTED);
         request.setRespondedAt(LocalDateTime.now());
         participationRepository.save(request);
+        if (wasApproved) {
+            unreadCounterRepository.deleteByActivityIdAndUserId(activityId, request.getUser().getId());
+            accessibleActivityCache.invalidateUser(request.getUser().getId());
+            sessionPrincipalRegistry.revokeAccess(request.getUser().getId(), activityId);
+        }
+        unreadNotifier.notifyUser(organizer.getId(), activityId, ActivityUnreadNotifier.REASON_PARTICIPATION);
     }
 
     @Transactional
@@ -106,6 +135,9 @@ public class ActivityParticipationService {
         request.setStatus(denialCount >= 2 ? ParticipationStatus.BLOCKED : ParticipationStatus.EXCLUDED);
         request.setRespondedAt(LocalDateTime.now());
         participationRepository.save(request);
+        unreadCounterRepository.deleteByActivityIdAndUserId(activityId, request.getUser().getId());
+        accessibleActivityCache.invalidateUser(request.getUser().getId());
+        sessionPrincipalRegistry.revokeAccess(request.getUser().getId(), activityId);
     }
 
     @Transactional
@@ -131,6 +163,9 @@ public class ActivityParticipationService {
         participation.setStatus(ParticipationStatus.LEFT);
         participation.setRespondedAt(LocalDateTime.now());
         participationRepository.save(participation);
+        unreadCounterRepository.deleteByActivityIdAndUserId(activityId, user.getId());
+        accessibleActivityCache.invalidateUser(user.getId());
+        sessionPrincipalRegistry.revokeAccess(user.getId(), activityId);
     }
 
     @Transactional(readOnly = true)
@@ -251,12 +286,11 @@ public class ActivityParticipationService {
     }
 
     @Transactional(readOnly = true)
-    public Map<Long, Long> getPendingRequestCountsForOrganizerActivities(String organizerEmail) {
-        if (organizerEmail == null || organizerEmail.isBlank()) {
+    public Map<Long, Long> getPendingRequestCountsForOrganizerActivities(User organizer) {
+        if (organizer == null) {
             return Map.of();
         }
 
-        User organizer = requireUserByEmail(organizerEmail);
         List<ActivityParticipation> pendingRequests = participationRepository
                 .findByActivityCreatorIdAndStatus(organizer.getId(), ParticipationStatus.PENDING);
 
@@ -301,6 +335,14 @@ public class ActivityParticipationService {
         return participationRepository.save(request);
     }
 
+    private void recomputeUnreadCounter(Long activityId, Long userId) {
+        // Holding the row lock first means the recount sees every increment committed before it,
+        // and increments that commit later wait and then apply on top of it.
+        unreadCounterRepository.insertIfAbsent(activityId, userId);
+        unreadCounterRepository.findForUpdateByActivityIdAndUserId(activityId, userId);
+        unreadCounterRepository.recompute(activityId, userId);
+    }
+
     private int incrementDenialCount(ActivityParticipation request) {
         int denialCount = getDenialCount(request) + 1;
         request.setDenialCount(denialCount);
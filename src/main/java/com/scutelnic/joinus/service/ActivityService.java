@@ -4,61 +4,92 @@ import com.scutelnic.joinus.entity.Activity;
 import com.scutelnic.joinus.entity.User;
 import com.scutelnic.joinus.repository.ActivityRepository;
 import com.scutelnic.joinus.repository.ActivityMessageDeliveredRepository;
+import com.scutelnic.joinus.repository.ActivityMessageReactionCountRepository;
 import com.scutelnic.joinus.repository.ActivityMessageReactionRepository;
 import com.scutelnic.joinus.repository.ActivityMessageRepository;
-import com.scutelnic.joinus.repository.ActivityMessageSeenRepository;
 import com.scutelnic.joinus.repository.ActivityParticipationRepository;
 import com.scutelnic.joinus.repository.ActivityPollOptionRepository;
 import com.scutelnic.joinus.repository.ActivityPollRepository;
 import com.scutelnic.joinus.repository.ActivityPollVoteRepository;
+import com.scutelnic.joinus.repository.ActivityReadWatermarkRepository;
+import com.scutelnic.joinus.repository.ActivityUnreadCounterRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.text.Normalizer;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
 @Service
 public class ActivityService {
 
+    private static final Pattern SEARCH_TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+
     private final ActivityRepository activityRepository;
     private final ActivityParticipationRepository activityParticipationRepository;
     private final ActivityMessageRepository activityMessageRepository;
-    private final ActivityMessageSeenRepository activityMessageSeenRepository;
     private final ActivityMessageDeliveredRepository activityMessageDeliveredRepository;
     private final ActivityMessageReactionRepository activityMessageReactionRepository;
+    private final ActivityMessageReactionCountRepository activityMessageReactionCountRepository;
     private final ActivityPollRepository activityPollRepository;
     private final ActivityPollOptionRepository activityPollOptionRepository;
     private final ActivityPollVoteRepository activityPollVoteRepository;
+    private final ActivityReadWatermarkRepository activityReadWatermarkRepository;
+    private final ActivityUnreadCounterRepository activityUnreadCounterRepository;
+    private final ActivityChatHistoryCache activityChatHistoryCache;
+    private final ChatSessionPrincipalRegistry chatSessionPrincipalRegistry;
+    private final AccessibleActivityCache accessibleActivityCache;
 
     public ActivityService(ActivityRepository activityRepository,
                            ActivityParticipationRepository activityParticipationRepository,
                            ActivityMessageRepository activityMessageRepository,
-                           ActivityMessageSeenRepository activityMessageSeenRepository,
                            ActivityMessageDeliveredRepository activityMessageDeliveredRepository,
                            ActivityMessageReactionRepository activityMessageReactionRepository,
+                           ActivityMessageReactionCountRepository activityMessageReactionCountRepository,
                            ActivityPollRepository activityPollRepository,
                            ActivityPollOptionRepository activityPollOptionRepository,
-                           ActivityPollVoteRepository activityPollVoteRepository) {
+                           ActivityPollVoteRepository activityPollVoteRepository,
+                           ActivityReadWatermarkRepository activityReadWatermarkRepository,
+                           ActivityUnreadCounterRepository activityUnreadCounterRepository,
+                           ActivityChatHistoryCache activityChatHistoryCache,
+                           ChatSessionPrincipalRegistry chatSessionPrincipalRegistry,
+                           AccessibleActivityCache accessibleActivityCache) {
         this.activityRepository = activityRepository;
         this.activityParticipationRepository = activityParticipationRepository;
         this.activityMessageRepository = activityMessageRepository;
-        this.activityMessageSeenRepository = activityMessageSeenRepository;
         this.activityMessageDeliveredRepository = activityMessageDeliveredRepository;
         this.activityMessageReactionRepository = activityMessageReactionRepository;
+        this.activityMessageReactionCountRepository = activityMessageReactionCountRepository;
         this.activityPollRepository = activityPollRepository;
         this.activityPollOptionRepository = activityPollOptionRepository;
         this.activityPollVoteRepository = activityPollVoteRepository;
+        this.activityReadWatermarkRepository = activityReadWatermarkRepository;
+        this.activityUnreadCounterRepository = activityUnreadCounterRepository;
+        this.activityChatHistoryCache = activityChatHistoryCache;
+        this.chatSessionPrincipalRegistry = chatSessionPrincipalRegistry;
+        this.accessibleActivityCache = accessibleActivityCache;
     }
 
     public Activity create(Activity activity) {
-        return activityRepository.save(activity);
+        Activity saved = activityRepository.save(activity);
+        if (saved.getCreator() != null) {
+            accessibleActivityCache.invalidateUser(saved.getCreator().getId());
+            chatSessionPrincipalRegistry.grantAccess(saved.getCreator().getId(), saved.getId());
+        }
+        return saved;
     }
 
     public Activity create(String title,
@@ -100,10 +131,28 @@ public class ActivityService {
     public Page<Activity> getPage(int page, int size) {
         int safePage = Math.max(page, 0);
         int safeSize = Math.max(1, Math.min(size, 30));
-        Pageable pageable = PageRequest.of(safePage, safeSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+        Pageable pageable = PageRequest.of(safePage, safeSize, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
         return activityRepository.findAll(pageable);
     }
 
+    public Slice<Activity> getPageBefore(LocalDateTime beforeCreatedAt, Long beforeId, int size) {
+        int safeSize = Math.max(1, Math.min(size, 30));
+        return activityRepository.findPageBefore(beforeCreatedAt, beforeId, PageRequest.of(0, safeSize));
+    }
+
+    public Page<Activity> search(String query, boolean newestFirst, int page, int size) {
+        int safePage = Math.max(page, 0);
+        int safeSize = Math.max(1, Math.min(size, 30));
+        Pageable pageable = PageRequest.of(safePage, safeSize);
+        String tsQuery = toPrefixTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return newestFirst
+                ? activityRepository.searchByRecency(tsQuery, pageable)
+                : activityRepository.searchByRelevance(tsQuery, pageable);
+    }
+
     public Optional<Activity> getById(Long id) {
         return activityRepository.findWithCreatorById(id);
     }
@@ -112,16 +161,43 @@ public class ActivityService {
         return activityRepository.findAllByCreatorIdOrderByCreatedAtDesc(creatorId);
     }
 
+    public List<Activity> getAccessibleActivities(Long userId) {
+        Set<Long> activityIds = accessibleActivityCache.getAccessibleActivityIds(userId);
+        if (activityIds.isEmpty()) {
+            return List.of();
+        }
+        return activityRepository.findWithCreatorByIdIn(activityIds);
+    }
+
     @Transactional
     public void deleteActivityWithRelations(Long activityId) {
-        activityMessageSeenRepository.deleteByMessageActivityId(activityId);
+        activityReadWatermarkRepository.deleteByActivityId(activityId);
+        activityUnreadCounterRepository.deleteByActivityId(activityId);
         activityMessageDeliveredRepository.deleteByMessageActivityId(activityId);
         activityMessageReactionRepository.deleteByMessageActivityId(activityId);
+        activityMessageReactionCountRepository.deleteByMessageActivityId(activityId);
         activityMessageRepository.deleteByActivityId(activityId);
         activityParticipationRepository.deleteByActivityId(activityId);
         activityPollVoteRepository.deleteByPollActivityId(activityId);
         activityPollOptionRepository.deleteByPollActivityId(activityId);
         activityPollRepository.deleteByActivityId(activityId);
         activityRepository.deleteById(activityId);
+        activityChatHistoryCache.evict(activityId);
+        accessibleActivityCache.invalidateActivity(activityId);
+        chatSessionPrincipalRegistry.revokeActivity(activityId);
+    }
+
+    private String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return "";
+        }
+        StringJoiner terms = new StringJoiner(" & ");
+        // NFC folds s/t plus a combining comma into one letter, so decomposed input still yields whole terms.
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        Matcher matcher = SEARCH_TERM.matcher(normalized);
+        while (matcher.find()) {
+            terms.add(matcher.group() + ":*");
+        }
+        return terms.toString();
     }
 }
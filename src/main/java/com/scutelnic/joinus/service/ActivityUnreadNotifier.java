@@ -0,0 +1,81 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig;
+import com.scutelnic.joinus.dto.chat.UnreadChangedEvent;
+import com.scutelnic.joinus.repository.UserRepository;
+import com.scutelnic.joinus.service.ChatSessionPrincipalRegistry.ChatSessionPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class ActivityUnreadNotifier {
+
+    public static final String REASON_MESSAGE = "message";
+    public static final String REASON_ANNOUNCEMENT = "announcement";
+    public static final String REASON_SEEN = "seen";
+    public static final String REASON_PARTICIPATION = "participation";
+
+    private final ChatSessionPrincipalRegistry sessionPrincipalRegistry;
+    private final ActivityChatEventPublisher eventPublisher;
+    private final UserRepository userRepository;
+    private final boolean localRecipients;
+
+    public ActivityUnreadNotifier(ChatSessionPrincipalRegistry sessionPrincipalRegistry,
+                                  ActivityChatEventPublisher eventPublisher,
+                                  UserRepository userRepository,
+                                  @Value("${joinus.websocket.broker.mode:simple}") WebSocketConfig.BrokerMode brokerMode) {
+        this.sessionPrincipalRegistry = sessionPrincipalRegistry;
+        this.eventPublisher = eventPublisher;
+        this.userRepository = userRepository;
+        // Behind a relay the recipient may be connected to another node, so the local registry cannot
+        // tell who is online; members are resolved from the database and the relay routes /user frames.
+        this.localRecipients = brokerMode != WebSocketConfig.BrokerMode.RELAY;
+    }
+
+    public void notifyActivityMembers(Long activityId, Long excludedUserId, String reason) {
+        afterCommit(() -> {
+            UnreadChangedEvent event = new UnreadChangedEvent(activityId, reason);
+            if (!localRecipients) {
+                for (UserRepository.UserEmailView member : userRepository.findActivityMemberEmails(activityId)) {
+                    if (!member.getId().equals(excludedUserId)) {
+                        eventPublisher.publishUnreadChanged(member.getEmail(), event);
+                    }
+                }
+                return;
+            }
+            for (ChatSessionPrincipal principal : sessionPrincipalRegistry.findConnectedWithAccess(activityId)) {
+                if (!principal.userId().equals(excludedUserId)) {
+                    eventPublisher.publishUnreadChanged(principal.email(), event);
+                }
+            }
+        });
+    }
+
+    public void notifyUser(Long userId, Long activityId, String reason) {
+        afterCommit(() -> {
+            UnreadChangedEvent event = new UnreadChangedEvent(activityId, reason);
+            if (!localRecipients) {
+                userRepository.findEmailById(userId)
+                        .ifPresent(email -> eventPublisher.publishUnreadChanged(email, event));
+                return;
+            }
+            sessionPrincipalRegistry.findByUserId(userId)
+                    .ifPresent(principal -> eventPublisher.publishUnreadChanged(principal.email(), event));
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
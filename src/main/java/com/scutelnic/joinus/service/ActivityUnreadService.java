@@ -1,15 +1,13 @@
 package com.scutelnic.joinus.service;
 
-import com.scutelnic.joinus.entity.Activity;
 import com.scutelnic.joinus.entity.User;
-import com.scutelnic.joinus.repository.ActivityMessageRepository;
+import com.scutelnic.joinus.repository.ActivityUnreadCounterRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,75 +15,52 @@ import java.util.Set;
 @Service
 public class ActivityUnreadService {
 
-    private final ActivityMessageRepository activityMessageRepository;
-    private final ActivityService activityService;
-    private final ActivityParticipationService participationService;
-    private final UserService userService;
-
-    public ActivityUnreadService(ActivityMessageRepository activityMessageRepository,
-                                 ActivityService activityService,
-                                 ActivityParticipationService participationService,
-                                 UserService userService) {
-        this.activityMessageRepository = activityMessageRepository;
-        this.activityService = activityService;
-        this.participationService = participationService;
-        this.userService = userService;
-    }
+    private final ActivityUnreadCounterRepository unreadCounterRepository;
+    private final AccessibleActivityCache accessibleActivityCache;
 
-    public long countUnreadActivities(String userEmail) {
-        return getUnreadCountsByActivityForUser(userEmail).size();
+    public ActivityUnreadService(ActivityUnreadCounterRepository unreadCounterRepository,
+                                 AccessibleActivityCache accessibleActivityCache) {
+        this.unreadCounterRepository = unreadCounterRepository;
+        this.accessibleActivityCache = accessibleActivityCache;
     }
 
-    public Map<Long, Long> getUnreadCountsByActivityForUser(String userEmail) {
-        User user = resolveUser(userEmail);
-        if (user == null) {
-            return Map.of();
-        }
-        List<Long> accessibleActivityIds = resolveAccessibleActivityIds(user);
-        return buildUnreadCounts(user.getId(), accessibleActivityIds);
+    public long countUnreadActivities(User user) {
+        return getUnreadCountsByActivityForUser(user).size();
     }
 
-    public Map<Long, Long> getUnreadCountsByActivityForUser(String userEmail, Collection<Long> requestedActivityIds) {
-        User user = resolveUser(userEmail);
+    public Map<Long, Long> getUnreadCountsByActivityForUser(User user) {
         if (user == null) {
             return Map.of();
         }
-        List<Long> accessible = filterRequestedToAccessible(user, requestedActivityIds);
-        return buildUnreadCounts(user.getId(), accessible);
+        return buildUnreadCounts(findUnreadCounters(user.getId(), resolveAccessibleActivityIds(user)));
     }
 
-    public Map<Long, LocalDateTime> getLatestUnreadMessageByActivityForUser(String userEmail,
-                                                                             Collection<Long> requestedActivityIds) {
-        User user = resolveUser(userEmail);
+    public Map<Long, Long> getUnreadCountsByActivityForUser(User user, Collection<Long> requestedActivityIds) {
         if (user == null) {
             return Map.of();
         }
         List<Long> accessible = filterRequestedToAccessible(user, requestedActivityIds);
-        return buildLatestUnread(user.getId(), accessible);
+        return buildUnreadCounts(findUnreadCounters(user.getId(), accessible));
     }
 
-    public Map<Long, Long> getUnreadAnnouncementCountsByActivityForUser(String userEmail,
-                                                                         Collection<Long> requestedActivityIds) {
-        User user = resolveUser(userEmail);
+    public UnreadSnapshot getUnreadSnapshot(User user) {
         if (user == null) {
-            return Map.of();
+            return UnreadSnapshot.EMPTY;
         }
-        List<Long> accessible = filterRequestedToAccessible(user, requestedActivityIds);
-        return buildUnreadAnnouncementCounts(user.getId(), accessible);
-    }
-
-    private User resolveUser(String userEmail) {
-        if (userEmail == null || userEmail.isBlank()) {
-            return null;
-        }
-        return userService.findByEmail(userEmail).orElse(null);
+        List<ActivityUnreadCounterRepository.UnreadCounterView> rows =
+                findUnreadCounters(user.getId(), resolveAccessibleActivityIds(user));
+        return new UnreadSnapshot(
+                buildUnreadCounts(rows),
+                buildLatestUnread(rows),
+                buildUnreadAnnouncementCounts(rows)
+        );
     }
 
     private List<Long> filterRequestedToAccessible(User user, Collection<Long> requestedActivityIds) {
         if (requestedActivityIds == null || requestedActivityIds.isEmpty()) {
             return List.of();
         }
-        Set<Long> allowed = new LinkedHashSet<>(resolveAccessibleActivityIds(user));
+        Set<Long> allowed = accessibleActivityCache.getAccessibleActivityIds(user.getId());
         List<Long> filtered = new ArrayList<>();
         for (Long activityId : requestedActivityIds) {
             if (activityId == null || !allowed.contains(activityId)) {
@@ -97,76 +72,49 @@ public class ActivityUnreadService {
     }
 
     private List<Long> resolveAccessibleActivityIds(User user) {
-        List<Activity> authored = activityService.getByCreator(user.getId());
-        List<Activity> approved = participationService.getApprovedActivitiesForUser(user.getEmail());
-
-        Set<Long> uniqueIds = new LinkedHashSet<>();
-        for (Activity activity : authored) {
-            if (activity != null && activity.getId() != null) {
-                uniqueIds.add(activity.getId());
-            }
-        }
-        for (Activity activity : approved) {
-            if (activity != null && activity.getId() != null) {
-                uniqueIds.add(activity.getId());
-            }
-        }
-
-        return new ArrayList<>(uniqueIds);
+        return new ArrayList<>(accessibleActivityCache.getAccessibleActivityIds(user.getId()));
     }
 
-    private Map<Long, Long> buildUnreadCounts(Long userId, List<Long> activityIds) {
-        if (userId == null || activityIds == null || activityIds.isEmpty()) {
-            return Map.of();
-        }
-
+    private Map<Long, Long> buildUnreadCounts(List<ActivityUnreadCounterRepository.UnreadCounterView> rows) {
         Map<Long, Long> counts = new LinkedHashMap<>();
-        List<ActivityMessageRepository.ActivityUnreadSummaryProjection> rows =
-                activityMessageRepository.findUnreadSummaryByActivityIdsAndUserId(activityIds, userId);
-        for (ActivityMessageRepository.ActivityUnreadSummaryProjection row : rows) {
-            if (row.getActivityId() == null || row.getUnreadCount() == null) {
-                continue;
-            }
-            if (row.getUnreadCount() > 0) {
-                counts.put(row.getActivityId(), row.getUnreadCount());
-            }
+        for (ActivityUnreadCounterRepository.UnreadCounterView row : rows) {
+            counts.put(row.getActivityId(), row.getUnreadChat() + row.getUnreadAnnouncements());
         }
         return counts;
     }
 
-    private Map<Long, LocalDateTime> buildLatestUnread(Long userId, List<Long> activityIds) {
-        if (userId == null || activityIds == null || activityIds.isEmpty()) {
-            return Map.of();
-        }
-
+    private Map<Long, LocalDateTime> buildLatestUnread(List<ActivityUnreadCounterRepository.UnreadCounterView> rows) {
         Map<Long, LocalDateTime> latestByActivity = new LinkedHashMap<>();
-        List<ActivityMessageRepository.ActivityUnreadSummaryProjection> rows =
-                activityMessageRepository.findUnreadSummaryByActivityIdsAndUserId(activityIds, userId);
-        for (ActivityMessageRepository.ActivityUnreadSummaryProjection row : rows) {
-            if (row.getActivityId() == null || row.getLatestMessageAt() == null) {
-                continue;
+        for (ActivityUnreadCounterRepository.UnreadCounterView row : rows) {
+            if (row.getLatestAt() != null) {
+                latestByActivity.put(row.getActivityId(), row.getLatestAt());
             }
-            latestByActivity.put(row.getActivityId(), row.getLatestMessageAt());
         }
         return latestByActivity;
     }
 
-    private Map<Long, Long> buildUnreadAnnouncementCounts(Long userId, List<Long> activityIds) {
-        if (userId == null || activityIds == null || activityIds.isEmpty()) {
-            return Map.of();
-        }
-
+    private Map<Long, Long> buildUnreadAnnouncementCounts(List<ActivityUnreadCounterRepository.UnreadCounterView> rows) {
         Map<Long, Long> counts = new LinkedHashMap<>();
-        List<ActivityMessageRepository.ActivityUnreadSummaryProjection> rows =
-                activityMessageRepository.findUnreadAnnouncementSummaryByActivityIdsAndUserId(activityIds, userId);
-        for (ActivityMessageRepository.ActivityUnreadSummaryProjection row : rows) {
-            if (row.getActivityId() == null || row.getUnreadCount() == null) {
-                continue;
-            }
-            if (row.getUnreadCount() > 0) {
-                counts.put(row.getActivityId(), row.getUnreadCount());
+        for (ActivityUnreadCounterRepository.UnreadCounterView row : rows) {
+            if (row.getUnreadAnnouncements() > 0) {
+                counts.put(row.getActivityId(), row.getUnreadAnnouncements());
             }
         }
         return counts;
     }
+
+    private List<ActivityUnreadCounterRepository.UnreadCounterView> findUnreadCounters(Long userId, List<Long> activityIds) {
+        if (userId == null || activityIds == null || activityIds.isEmpty()) {
+            return List.of();
+        }
+        return unreadCounterRepository.findUnreadByUserIdAndActivityIds(userId, activityIds);
+    }
+
+    public record UnreadSnapshot(
+            Map<Long, Long> unreadCounts,
+            Map<Long, LocalDateTime> latestUnreadAt,
+            Map<Long, Long> unreadAnnouncementCounts
+    ) {
+        public static final UnreadSnapshot EMPTY = new UnreadSnapshot(Map.of(), Map.of(), Map.of());
+    }
 }
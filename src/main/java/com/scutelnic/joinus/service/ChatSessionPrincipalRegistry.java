@@ -0,0 +1,263 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig;
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class ChatSessionPrincipalRegistry {
+
+    private static final int MAX_ACCESS_LOAD_ATTEMPTS = 3;
+
+    private final UserRepository userRepository;
+    private final AccessibleActivityCache accessibleActivityCache;
+    private final boolean tracksAccess;
+    private final Map<String, ChatSessionPrincipal> principalsByEmail = new ConcurrentHashMap<>();
+    private final Map<Long, ChatSessionPrincipal> principalsByUserId = new ConcurrentHashMap<>();
+    private final Map<Long, Set<ChatSessionPrincipal>> principalsByActivity = new ConcurrentHashMap<>();
+
+    public ChatSessionPrincipalRegistry(UserRepository userRepository,
+                                        AccessibleActivityCache accessibleActivityCache,
+                                        @Value("${joinus.websocket.broker.mode:simple}") WebSocketConfig.BrokerMode brokerMode) {
+        this.userRepository = userRepository;
+        this.accessibleActivityCache = accessibleActivityCache;
+        // Grants and revocations made on other nodes never reach this registry behind a relay, so
+        // principals carry no access state or display name there and every check falls through to the database.
+        this.tracksAccess = brokerMode != WebSocketConfig.BrokerMode.RELAY;
+    }
+
+    @EventListener
+    public void onSessionConnect(SessionConnectEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || user.getName() == null || user.getName().isBlank() || sessionId == null) {
+            return;
+        }
+
+        String email = user.getName();
+        ChatSessionPrincipal existing = principalsByEmail.get(email);
+        if (existing != null) {
+            existing.sessionIds.add(sessionId);
+            return;
+        }
+
+        User account = userRepository.findByEmail(email).orElse(null);
+        if (account == null) {
+            return;
+        }
+
+        String fullName = tracksAccess ? account.getFullName() : null;
+        ChatSessionPrincipal principal = new ChatSessionPrincipal(account.getId(), email, fullName);
+        principal.sessionIds.add(sessionId);
+        ChatSessionPrincipal registered = principalsByEmail.merge(email, principal, (current, added) -> {
+            current.sessionIds.addAll(added.sessionIds);
+            return current;
+        });
+        principalsByUserId.put(registered.userId(), registered);
+        if (registered == principal && tracksAccess) {
+            loadAccess(principal);
+        }
+    }
+
+    private void loadAccess(ChatSessionPrincipal principal) {
+        // The principal is registered before its access is loaded, so a revocation committed while the
+        // query runs bumps the revision and the load is retried; until then every check hits the database.
+        for (int attempt = 0; attempt < MAX_ACCESS_LOAD_ATTEMPTS; attempt++) {
+            long revision = principal.revision();
+            Set<Long> accessibleActivityIds = accessibleActivityCache.getAccessibleActivityIds(principal.userId());
+            synchronized (principal) {
+                if (principal.revision.get() != revision) {
+                    continue;
+                }
+                if (!principal.sessionIds.isEmpty()) {
+                    principal.accessibleActivityIds.addAll(accessibleActivityIds);
+                    accessibleActivityIds.forEach(activityId -> index(principal, activityId));
+                }
+                return;
+            }
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (user == null || user.getName() == null) {
+            return;
+        }
+
+        principalsByEmail.computeIfPresent(user.getName(), (email, principal) -> {
+            principal.sessionIds.remove(event.getSessionId());
+            if (!principal.sessionIds.isEmpty()) {
+                return principal;
+            }
+            principalsByUserId.remove(principal.userId(), principal);
+            synchronized (principal) {
+                principal.accessibleActivityIds.forEach(activityId -> unindex(principal, activityId));
+            }
+            return null;
+        });
+    }
+
+    public Optional<ChatSessionPrincipal> find(String email) {
+        if (email == null || email.isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(principalsByEmail.get(email));
+    }
+
+    public Optional<ChatSessionPrincipal> findByUserId(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(principalsByUserId.get(userId));
+    }
+
+    public List<ChatSessionPrincipal> findConnectedWithAccess(Long activityId) {
+        Set<ChatSessionPrincipal> principals = activityId != null ? principalsByActivity.get(activityId) : null;
+        if (principals == null) {
+            return List.of();
+        }
+        return principals.stream()
+                .filter(principal -> !principal.sessionIds.isEmpty() && principal.canAccess(activityId))
+                .toList();
+    }
+
+    public void grantAccess(Long userId, Long activityId) {
+        if (!tracksAccess) {
+            return;
+        }
+        afterCommit(() -> {
+            ChatSessionPrincipal principal = principalsByUserId.get(userId);
+            if (principal != null) {
+                principal.accessibleActivityIds.add(activityId);
+                index(principal, activityId);
+            }
+        });
+    }
+
+    public void grantAccessIfUnchanged(ChatSessionPrincipal principal, long expectedRevision, Long activityId) {
+        if (!tracksAccess) {
+            return;
+        }
+        synchronized (principal) {
+            if (principal.revision.get() == expectedRevision) {
+                principal.accessibleActivityIds.add(activityId);
+                index(principal, activityId);
+            }
+        }
+    }
+
+    public void updateFullName(Long userId, String fullName) {
+        if (!tracksAccess) {
+            return;
+        }
+        afterCommit(() -> {
+            ChatSessionPrincipal principal = principalsByUserId.get(userId);
+            if (principal != null) {
+                principal.fullName = fullName;
+            }
+        });
+    }
+
+    public void revokeAccess(Long userId, Long activityId) {
+        afterCommit(() -> {
+            ChatSessionPrincipal principal = principalsByUserId.get(userId);
+            if (principal != null) {
+                principal.revoke(activityId);
+                unindex(principal, activityId);
+            }
+        });
+    }
+
+    public void revokeActivity(Long activityId) {
+        afterCommit(() -> {
+            principalsByActivity.remove(activityId);
+            // Every principal, not just the indexed ones, so a connect still loading its access retries.
+            principalsByUserId.values().forEach(principal -> principal.revoke(activityId));
+        });
+    }
+
+    private void index(ChatSessionPrincipal principal, Long activityId) {
+        principalsByActivity.compute(activityId, (id, principals) -> {
+            Set<ChatSessionPrincipal> indexed = principals != null ? principals : ConcurrentHashMap.newKeySet();
+            indexed.add(principal);
+            return indexed;
+        });
+    }
+
+    private void unindex(ChatSessionPrincipal principal, Long activityId) {
+        principalsByActivity.computeIfPresent(activityId, (id, principals) -> {
+            principals.remove(principal);
+            return principals.isEmpty() ? null : principals;
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public static final class ChatSessionPrincipal {
+        private final Long userId;
+        private final String email;
+        private volatile String fullName;
+        private final Set<Long> accessibleActivityIds = ConcurrentHashMap.newKeySet();
+        private final Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+        private final AtomicLong revision = new AtomicLong();
+
+        private ChatSessionPrincipal(Long userId, String email, String fullName) {
+            this.userId = userId;
+            this.email = email;
+            this.fullName = fullName;
+        }
+
+        public Long userId() {
+            return userId;
+        }
+
+        public String email() {
+            return email;
+        }
+
+        public String fullName() {
+            return fullName;
+        }
+
+        public boolean canAccess(Long activityId) {
+            return activityId != null && accessibleActivityIds.contains(activityId);
+        }
+
+        public long revision() {
+            return revision.get();
+        }
+
+        private synchronized void revoke(Long activityId) {
+            revision.incrementAndGet();
+            accessibleActivityIds.remove(activityId);
+        }
+    }
+}
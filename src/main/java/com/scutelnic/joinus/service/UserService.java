@@ -7,6 +7,8 @@ import com.scutelnic.joinus.repository.UserRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 
@@ -16,13 +18,22 @@ public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final NotificationService notificationService;
+    private final ChatSessionPrincipalRegistry sessionPrincipalRegistry;
+    private final AccessibleActivityCache accessibleActivityCache;
+    private final ActivityChatHistoryCache historyCache;
 
     public UserService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
-                       NotificationService notificationService) {
+                       NotificationService notificationService,
+                       ChatSessionPrincipalRegistry sessionPrincipalRegistry,
+                       AccessibleActivityCache accessibleActivityCache,
+                       ActivityChatHistoryCache historyCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.notificationService = notificationService;
+        this.sessionPrincipalRegistry = sessionPrincipalRegistry;
+        this.accessibleActivityCache = accessibleActivityCache;
+        this.historyCache = historyCache;
     }
 
     public void register(RegisterRequest request) {
@@ -56,14 +67,34 @@ public class UserService {
         User user = userRepository.findByEmail(normalizeEmail(email))
                 .orElseThrow(() -> new IllegalArgumentException("Utilizatorul nu exista."));
 
+        String previousFullName = user.getFullName();
         user.setFullName(request.getFullName().trim());
         user.setBirthDate(request.getBirthDate());
         user.setBio(normalizeNullable(request.getBio()));
         user.setAvatarUrl(normalizeNullable(request.getAvatarUrl()));
 
+        if (!user.getFullName().equals(previousFullName)) {
+            Long userId = user.getId();
+            sessionPrincipalRegistry.updateFullName(userId, user.getFullName());
+            afterCommit(() -> accessibleActivityCache.getAccessibleActivityIds(userId).forEach(historyCache::evict));
+        }
+
         return user;
     }
 
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
     private static String normalizeEmail(String email) {
         return email.toLowerCase().trim();
     }
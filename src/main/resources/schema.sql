@@ -4,3 +4,98 @@ ALTER TABLE IF EXISTS activity_participations
 ALTER TABLE IF EXISTS activity_participations
     ADD CONSTRAINT activity_participations_status_check
     CHECK (status IN ('PENDING', 'APPROVED', 'LEFT', 'REJECTED', 'EXCLUDED', 'BLOCKED'));
+
+CREATE INDEX IF NOT EXISTS idx_activity_messages_chat_history
+    ON activity_messages (activity_id, created_at DESC, id DESC)
+    WHERE COALESCE(message_type, 'CHAT') = 'CHAT';
+
+-- Only messages written before sequencing existed match this index, so once the backfill has run
+-- the lookup below reads an empty index instead of scanning activity_messages on every start.
+CREATE INDEX IF NOT EXISTS idx_activity_messages_unsequenced
+    ON activity_messages (activity_id)
+    WHERE seq IS NULL AND COALESCE(message_type, 'CHAT') = 'CHAT';
+
+UPDATE activity_messages m
+SET seq = ordered.rn
+FROM (
+    SELECT id,
+           row_number() OVER (PARTITION BY activity_id ORDER BY created_at, id) AS rn
+    FROM activity_messages
+    WHERE COALESCE(message_type, 'CHAT') = 'CHAT'
+      AND activity_id IN (
+          SELECT activity_id
+          FROM activity_messages
+          WHERE seq IS NULL
+            AND COALESCE(message_type, 'CHAT') = 'CHAT'
+      )
+) ordered
+WHERE m.id = ordered.id
+  AND m.seq IS NULL
+  AND NOT EXISTS (
+      SELECT 1
+      FROM activity_messages sequenced
+      WHERE sequenced.activity_id = m.activity_id
+        AND sequenced.seq IS NOT NULL
+  );
+
+-- nextMessageSeq keeps last_message_seq current once it is set, so only activities that have never
+-- assigned a sequence number need their counter seeded from the backfilled messages.
+UPDATE activities a
+SET last_message_seq = latest.max_seq
+FROM (
+    SELECT m.activity_id, MAX(m.seq) AS max_seq
+    FROM activity_messages m
+    JOIN activities pending
+      ON pending.id = m.activity_id
+     AND pending.last_message_seq IS NULL
+    WHERE m.seq IS NOT NULL
+    GROUP BY m.activity_id
+) latest
+WHERE a.id = latest.activity_id
+  AND a.last_message_seq IS NULL;
+
+ALTER TABLE IF EXISTS activities
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(title, '')), 'A')
+        || setweight(to_tsvector('simple', COALESCE(category, '') || ' ' || COALESCE(tags, '')), 'B')
+        || setweight(to_tsvector('simple', COALESCE(location, '')), 'C')
+        || setweight(to_tsvector('simple', COALESCE(description, '')), 'D')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_activities_search_vector
+    ON activities USING GIN (search_vector);
+
+-- Read receipts now live in activity_read_watermarks. Legacy per-message rows are folded into them
+-- once, keeping the highest seen id per user since a watermark cannot express gaps, and the table is
+-- dropped so later starts skip the scan. The body is single-quoted because the init script is split
+-- on semicolons outside of quotes.
+DO '
+BEGIN
+    IF to_regclass(''activity_message_seen'') IS NULL THEN
+        RETURN;
+    END IF;
+    PERFORM pg_advisory_xact_lock(hashtext(''joinus.activity_message_seen.migration''));
+    IF to_regclass(''activity_message_seen'') IS NULL THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO activity_read_watermarks (activity_id, user_id, last_seen_message_id, last_seen_announcement_id, last_seen_at)
+    SELECT m.activity_id,
+           s.user_id,
+           COALESCE(MAX(m.id) FILTER (WHERE COALESCE(m.message_type, ''CHAT'') = ''CHAT''), 0),
+           COALESCE(MAX(m.id) FILTER (WHERE COALESCE(m.message_type, ''CHAT'') = ''ANNOUNCEMENT''), 0),
+           MAX(s.seen_at)
+    FROM activity_message_seen s
+    JOIN activity_messages m ON m.id = s.message_id
+    GROUP BY m.activity_id, s.user_id
+    ON CONFLICT ON CONSTRAINT uq_read_watermark_activity_user DO NOTHING;
+
+    DROP TABLE activity_message_seen;
+END
+';
+
+-- New options start at zero, so only rows written before vote counters existed are left null for
+-- the one-time startup backfill.
+ALTER TABLE IF EXISTS activity_poll_options
+    ALTER COLUMN vote_count SET DEFAULT 0;
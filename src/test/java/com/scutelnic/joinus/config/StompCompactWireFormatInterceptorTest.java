@@ -0,0 +1,82 @@
+package com.scutelnic.joinus.config;
+
+import com.scutelnic.joinus.service.ActivityChatEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class StompCompactWireFormatInterceptorTest {
+
+    private static final byte[] JSON = "{\"messageId\":7,\"deliveredCount\":1,\"seenCount\":1}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] COMPACT = "{\"k\":\"s\",\"u\":[[7,1,1]]}".getBytes(StandardCharsets.UTF_8);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StompCompactWireFormatInterceptor interceptor = new StompCompactWireFormatInterceptor(meterRegistry);
+    private final MessageChannel channel = mock(MessageChannel.class);
+
+    @BeforeEach
+    void setUp() {
+        connect("compact-session", ActivityChatEventPublisher.COMPACT_WIRE_FORMAT);
+        connect("json-session", null);
+    }
+
+    @Test
+    void swapsInCompactPayloadForSessionsThatAskedForIt() {
+        Message<?> sent = interceptor.preSend(frame("compact-session", true), channel);
+
+        assertThat((byte[]) sent.getPayload()).isEqualTo(COMPACT);
+        assertThat(sent.getHeaders()).doesNotContainKey(ActivityChatEventPublisher.COMPACT_PAYLOAD_HEADER);
+        assertThat(SimpMessageHeaderAccessor.getSessionId(sent.getHeaders())).isEqualTo("compact-session");
+        assertThat(meterRegistry.get("joinus.websocket.outbound.event.bytes").tag("format", "compact").summary().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void keepsJsonPayloadForOtherSessions() {
+        Message<?> sent = interceptor.preSend(frame("json-session", true), channel);
+
+        assertThat((byte[]) sent.getPayload()).isEqualTo(JSON);
+        assertThat(meterRegistry.get("joinus.websocket.outbound.event.bytes").tag("format", "json").summary().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void passesFramesWithoutCompactVariantThrough() {
+        Message<?> frame = frame("compact-session", false);
+
+        assertThat(interceptor.preSend(frame, channel)).isSameAs(frame);
+    }
+
+    private void connect(String sessionId, String wireFormat) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        if (wireFormat != null) {
+            accessor.addNativeHeader(ActivityChatEventPublisher.WIRE_FORMAT_HEADER, wireFormat);
+        }
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        interceptor.onSessionConnect(new SessionConnectEvent(this, message));
+    }
+
+    private static Message<byte[]> frame(String sessionId, boolean withCompactVariant) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination("/topic/activities/1/status");
+        accessor.setSessionId(sessionId);
+        if (withCompactVariant) {
+            accessor.setHeader(ActivityChatEventPublisher.COMPACT_PAYLOAD_HEADER, COMPACT);
+        }
+        return MessageBuilder.createMessage(JSON, accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,131 @@
+package com.scutelnic.joinus.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class StompOutboundBackpressureInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StompOutboundBackpressureInterceptor interceptor = new StompOutboundBackpressureInterceptor(2, meterRegistry);
+    private final MessageChannel channel = mock(MessageChannel.class);
+    private final MessageHandler handler = mock(MessageHandler.class);
+
+    @Test
+    void dropsStatusFramesQueuedBeyondThreshold() {
+        List<Message<?>> delivered = deliver(frames("/topic/activities/1/status", "s1", 4));
+
+        assertThat(delivered).hasSize(2);
+        assertThat(meterRegistry.get("joinus.websocket.outbound.dropped").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void dropsReactionFramesQueuedBeyondThreshold() {
+        List<Message<?>> delivered = deliver(frames("/topic/activities/1/reactions", "s1", 5));
+
+        assertThat(delivered).hasSize(2);
+    }
+
+    @Test
+    void neverDropsChatOrPollFrames() {
+        List<Message<?>> queued = new ArrayList<>(frames("/topic/activities/1", "s1", 20));
+        queued.addAll(frames("/topic/activities/1/polls", "s1", 20));
+        queued.addAll(frames("/user/queue/unread", "s1", 20));
+
+        assertThat(deliver(queued)).hasSize(60);
+        assertThat(meterRegistry.get("joinus.websocket.outbound.dropped").counter().count()).isZero();
+    }
+
+    @Test
+    void countsBacklogPerSession() {
+        List<Message<?>> queued = new ArrayList<>(frames("/topic/activities/1/status", "s1", 2));
+        queued.addAll(frames("/topic/activities/1/status", "s2", 2));
+
+        assertThat(deliver(queued)).hasSize(4);
+    }
+
+    @Test
+    void deliversAgainOnceBacklogDrains() {
+        deliver(frames("/topic/activities/1/status", "s1", 4));
+
+        assertThat(deliver(frames("/topic/activities/1/status", "s1", 1))).hasSize(1);
+    }
+
+    @Test
+    void forgetsSessionsOnceTheirBacklogDrains() {
+        deliver(frames("/topic/activities/1/status", "s1", 4));
+        deliver(frames("/topic/activities/1/reactions", "s2", 1));
+
+        assertThat(trackedSessions()).isZero();
+    }
+
+    @Test
+    void framesSentAfterDisconnectDoNotLeaveSessionsBehind() {
+        List<Message<?>> queued = frames("/topic/activities/1/status", "s1", 3);
+        queued.forEach(message -> interceptor.preSend(message, channel));
+        interceptor.onSessionDisconnect(new SessionDisconnectEvent(this, disconnectFrame("s1"), "s1", CloseStatus.NORMAL));
+
+        List<Message<?>> late = frames("/topic/activities/1/status", "s1", 2);
+        late.forEach(message -> interceptor.preSend(message, channel));
+        queued.forEach(message -> interceptor.beforeHandle(message, channel, handler));
+        late.forEach(message -> interceptor.beforeHandle(message, channel, handler));
+
+        assertThat(trackedSessions()).isZero();
+    }
+
+    @Test
+    void releasesSlotWhenExecutorRejectsFrame() {
+        Message<?> frame = frames("/topic/activities/1/status", "s1", 1).get(0);
+        interceptor.preSend(frame, channel);
+
+        interceptor.afterSendCompletion(frame, channel, false, new IllegalStateException("rejected"));
+
+        assertThat(trackedSessions()).isZero();
+    }
+
+    private double trackedSessions() {
+        return meterRegistry.get("joinus.websocket.outbound.backlog.sessions").gauge().value();
+    }
+
+    private static Message<byte[]> disconnectFrame(String sessionId) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private List<Message<?>> deliver(List<Message<?>> queued) {
+        queued.forEach(message -> interceptor.preSend(message, channel));
+        List<Message<?>> delivered = new ArrayList<>();
+        for (Message<?> message : queued) {
+            Message<?> handled = interceptor.beforeHandle(message, channel, handler);
+            if (handled != null) {
+                delivered.add(handled);
+            }
+        }
+        return delivered;
+    }
+
+    private static List<Message<?>> frames(String destination, String sessionId, int count) {
+        List<Message<?>> frames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setDestination(destination);
+            accessor.setSessionId(sessionId);
+            frames.add(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        }
+        return frames;
+    }
+}
@@ -0,0 +1,105 @@
+package com.scutelnic.joinus.controller;
+
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.Filter;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CurrentViewerContextTest {
+
+    private static final long MAX_PROFILE_EDIT_STATEMENTS = 6;
+    private static final long MAX_UNREAD_SUMMARY_STATEMENTS = 4;
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+
+    private MockMvc mockMvc;
+    private Statistics statistics;
+    private User viewer;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .addFilters(context.getBean("springSecurityFilterChain", Filter.class))
+                .build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        viewer = new User();
+        viewer.setEmail("viewer-" + UUID.randomUUID().toString().substring(0, 8) + "@joinus.test");
+        viewer.setFullName("Viewer Test");
+        viewer.setPassword("not-used");
+        viewer = userRepository.save(viewer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.delete(viewer);
+    }
+
+    @Test
+    void loadsSignedInUserOncePerPageRender() throws Exception {
+        MockHttpSession session = signedInSession(viewer.getEmail());
+        statistics.clear();
+
+        mockMvc.perform(get("/profile/edit").session(session))
+                .andExpect(status().isOk());
+
+        // The controller, the navbar model attributes and the unread snapshot all read the viewer.
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isEqualTo(1);
+        // Viewer, accessible activity ids, review count, recent reviews and created activities.
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_PROFILE_EDIT_STATEMENTS);
+    }
+
+    @Test
+    void unreadSummaryResolvesViewerOnce() throws Exception {
+        MockHttpSession session = signedInSession(viewer.getEmail());
+        statistics.clear();
+
+        mockMvc.perform(get("/api/chat/unread-summary").session(session))
+                .andExpect(status().isOk());
+
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isEqualTo(1);
+        // Viewer, accessible activity ids and pending participation requests.
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(MAX_UNREAD_SUMMARY_STATEMENTS);
+    }
+
+    private static MockHttpSession signedInSession(String email) {
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                email,
+                null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER"))
+        ));
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, securityContext);
+        return session;
+    }
+}
@@ -0,0 +1,92 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig.BrokerMode;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccessibleActivityCacheTest {
+
+    private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void evictsLeastRecentlyUsedUserOverCapacity() {
+        AccessibleActivityCache cache = new AccessibleActivityCache(activityRepository, 2, BrokerMode.SIMPLE, meterRegistry);
+        when(activityRepository.findAccessibleIdsByUserId(1L)).thenReturn(List.of(10L));
+        when(activityRepository.findAccessibleIdsByUserId(2L)).thenReturn(List.of(20L));
+        when(activityRepository.findAccessibleIdsByUserId(3L)).thenReturn(List.of(30L));
+
+        cache.getAccessibleActivityIds(1L);
+        cache.getAccessibleActivityIds(2L);
+        cache.getAccessibleActivityIds(1L);
+        cache.getAccessibleActivityIds(3L);
+
+        assertThat(meterRegistry.get("joinus.activity.access.cache.users").gauge().value()).isEqualTo(2.0);
+        cache.getAccessibleActivityIds(1L);
+        cache.getAccessibleActivityIds(2L);
+        verify(activityRepository, times(1)).findAccessibleIdsByUserId(1L);
+        verify(activityRepository, times(2)).findAccessibleIdsByUserId(2L);
+    }
+
+    @Test
+    void doesNotStoreLoadThatRacedUserInvalidation() {
+        AccessibleActivityCache cache = new AccessibleActivityCache(activityRepository, 10, BrokerMode.SIMPLE, meterRegistry);
+        when(activityRepository.findAccessibleIdsByUserId(1L)).thenAnswer(invocation -> {
+            cache.invalidateUser(1L);
+            return List.of(10L);
+        }).thenReturn(List.of());
+
+        assertThat(cache.getAccessibleActivityIds(1L)).containsExactly(10L);
+        assertThat(cache.getAccessibleActivityIds(1L)).isEmpty();
+        verify(activityRepository, times(2)).findAccessibleIdsByUserId(1L);
+    }
+
+    @Test
+    void doesNotStoreLoadThatRacedActivityInvalidation() {
+        AccessibleActivityCache cache = new AccessibleActivityCache(activityRepository, 10, BrokerMode.SIMPLE, meterRegistry);
+        when(activityRepository.findAccessibleIdsByUserId(1L)).thenAnswer(invocation -> {
+            cache.invalidateActivity(10L);
+            return List.of(10L);
+        }).thenReturn(List.of());
+
+        cache.getAccessibleActivityIds(1L);
+
+        assertThat(cache.getAccessibleActivityIds(1L)).isEmpty();
+    }
+
+    @Test
+    void invalidateActivityDropsOnlyUsersThatCouldAccessIt() {
+        AccessibleActivityCache cache = new AccessibleActivityCache(activityRepository, 10, BrokerMode.SIMPLE, meterRegistry);
+        when(activityRepository.findAccessibleIdsByUserId(1L)).thenReturn(List.of(10L));
+        when(activityRepository.findAccessibleIdsByUserId(2L)).thenReturn(List.of(20L));
+        cache.getAccessibleActivityIds(1L);
+        cache.getAccessibleActivityIds(2L);
+
+        cache.invalidateActivity(10L);
+        cache.getAccessibleActivityIds(1L);
+        cache.getAccessibleActivityIds(2L);
+
+        verify(activityRepository, times(2)).findAccessibleIdsByUserId(1L);
+        verify(activityRepository, times(1)).findAccessibleIdsByUserId(2L);
+    }
+
+    @Test
+    void neverCachesInRelayMode() {
+        AccessibleActivityCache cache = new AccessibleActivityCache(activityRepository, 10, BrokerMode.RELAY, meterRegistry);
+        when(activityRepository.findAccessibleIdsByUserId(1L)).thenReturn(List.of(10L));
+
+        cache.getAccessibleActivityIds(1L);
+        cache.getAccessibleActivityIds(1L);
+
+        verify(activityRepository, times(2)).findAccessibleIdsByUserId(1L);
+    }
+}
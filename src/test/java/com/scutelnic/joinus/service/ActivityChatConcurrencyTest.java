@@ -0,0 +1,142 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.entity.Activity;
+import com.scutelnic.joinus.entity.ActivityMessageReaction;
+import com.scutelnic.joinus.entity.ActivityMessageReactionType;
+import com.scutelnic.joinus.entity.ActivityParticipation;
+import com.scutelnic.joinus.entity.ParticipationStatus;
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.repository.ActivityMessageReactionCountRepository;
+import com.scutelnic.joinus.repository.ActivityMessageReactionRepository;
+import com.scutelnic.joinus.repository.ActivityParticipationRepository;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import com.scutelnic.joinus.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ActivityChatConcurrencyTest {
+
+    private static final int MEMBERS = 50;
+
+    @Autowired
+    private ActivityChatService chatService;
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private ActivityParticipationRepository participationRepository;
+    @Autowired
+    private ActivityMessageReactionRepository reactionRepository;
+    @Autowired
+    private ActivityMessageReactionCountRepository reactionCountRepository;
+
+    private final List<User> members = new ArrayList<>();
+    private User organizer;
+    private Activity activity;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        organizer = saveUser("organizer-" + run + "@joinus.test");
+
+        activity = new Activity();
+        activity.setTitle("Concurrency " + run);
+        activity.setDescription("Reaction toggles");
+        activity.setDate(LocalDate.now().plusDays(1));
+        activity.setTime(LocalTime.NOON);
+        activity.setLocation("Chisinau");
+        activity.setAddress("Str. Test 1");
+        activity.setCapacity(MEMBERS + 1);
+        activity.setCreator(organizer);
+        activity.setCreatedAt(LocalDateTime.now());
+        activity = activityRepository.save(activity);
+
+        for (int i = 0; i < MEMBERS; i++) {
+            User member = saveUser("member-" + i + "-" + run + "@joinus.test");
+            ActivityParticipation participation = new ActivityParticipation();
+            participation.setActivity(activity);
+            participation.setUser(member);
+            participation.setStatus(ParticipationStatus.APPROVED);
+            participationRepository.save(participation);
+            members.add(member);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        activityService.deleteActivityWithRelations(activity.getId());
+        userRepository.deleteAll(members);
+        userRepository.delete(organizer);
+    }
+
+    @Test
+    void concurrentTogglesKeepReactionCountersInStepWithReactions() throws Exception {
+        Long messageId = chatService.sendMessage(activity.getId(), organizer.getEmail(), "Who is in?").id();
+        List<String> toggles = List.of("LIKE", "LIKE", "LOVE", "LIKE");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (User member : members) {
+            for (String reactionType : toggles) {
+                tasks.add(() -> {
+                    start.await();
+                    return chatService.toggleReaction(activity.getId(), messageId, reactionType, member.getEmail());
+                });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(MEMBERS);
+        try {
+            List<Future<Object>> results = tasks.stream().map(executor::submit).toList();
+            start.countDown();
+            for (Future<Object> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<ActivityMessageReactionType, Long> actual = new EnumMap<>(ActivityMessageReactionType.class);
+        for (User member : members) {
+            for (ActivityMessageReaction reaction : reactionRepository.findByMessageIdInAndUserId(List.of(messageId), member.getId())) {
+                actual.merge(reaction.getReactionType(), 1L, Long::sum);
+            }
+        }
+        Map<ActivityMessageReactionType, Long> counted = new EnumMap<>(ActivityMessageReactionType.class);
+        reactionCountRepository.findCountsByMessageIds(List.of(messageId))
+                .forEach(view -> counted.put(view.getReactionType(), view.getTotal()));
+
+        assertThat(counted).isEqualTo(actual);
+    }
+
+    private User saveUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName(email);
+        user.setPassword("not-used");
+        return userRepository.save(user);
+    }
+}
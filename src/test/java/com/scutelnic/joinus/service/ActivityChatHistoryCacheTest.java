@@ -0,0 +1,92 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig.BrokerMode;
+import com.scutelnic.joinus.service.ActivityChatHistoryCache.CachedChatMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ActivityChatHistoryCacheTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void evictsLeastRecentlyUsedWindowOverByteBudget() {
+        ActivityChatHistoryCache cache = new ActivityChatHistoryCache(10, 600, BrokerMode.SIMPLE, meterRegistry);
+        cache.store(1L, cache.mutationStamp(1L), List.of(message(1L, 11L)), true);
+        cache.store(2L, cache.mutationStamp(2L), List.of(message(2L, 21L)), true);
+        assertThat(cache.findPage(1L, null, 10)).isPresent();
+
+        cache.store(3L, cache.mutationStamp(3L), List.of(message(3L, 31L)), true);
+
+        assertThat(cache.findPage(1L, null, 10)).isPresent();
+        assertThat(cache.findPage(2L, null, 10)).isEmpty();
+        assertThat(cache.findPage(3L, null, 10)).isPresent();
+        assertThat(meterRegistry.get("joinus.chat.history.cache.evictions").functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void rejectsStoreLoadedBeforeMutation() {
+        ActivityChatHistoryCache cache = new ActivityChatHistoryCache(10, 1_000_000, BrokerMode.SIMPLE, meterRegistry);
+        long stamp = cache.mutationStamp(1L);
+
+        cache.append(message(1L, 12L));
+        cache.store(1L, stamp, List.of(message(1L, 11L)), true);
+
+        assertThat(cache.findPage(1L, null, 10)).isEmpty();
+    }
+
+    @Test
+    void rejectsStoreLoadedBeforeEvict() {
+        ActivityChatHistoryCache cache = new ActivityChatHistoryCache(10, 1_000_000, BrokerMode.SIMPLE, meterRegistry);
+        long stamp = cache.mutationStamp(1L);
+
+        cache.evict(1L);
+        cache.store(1L, stamp, List.of(message(1L, 11L)), true);
+
+        assertThat(cache.findPage(1L, null, 10)).isEmpty();
+    }
+
+    @Test
+    void appendsToWarmWindowAndTrimsToWindowSize() {
+        ActivityChatHistoryCache cache = new ActivityChatHistoryCache(3, 1_000_000, BrokerMode.SIMPLE, meterRegistry);
+        cache.store(1L, cache.mutationStamp(1L), List.of(message(1L, 11L), message(1L, 12L), message(1L, 13L)), true);
+
+        cache.append(message(1L, 14L));
+
+        assertThat(cache.findPage(1L, null, 3))
+                .hasValueSatisfying(page -> assertThat(page).extracting(CachedChatMessage::id).containsExactly(12L, 13L, 14L));
+        assertThat(cache.findPage(1L, null, 10)).as("trimmed window no longer reaches the oldest message").isEmpty();
+        assertThat(cache.oldestCachedMessageId(1L)).isEqualTo(12L);
+    }
+
+    @Test
+    void evictsWindowWhenAppendArrivesOutOfOrder() {
+        ActivityChatHistoryCache cache = new ActivityChatHistoryCache(10, 1_000_000, BrokerMode.SIMPLE, meterRegistry);
+        cache.store(1L, cache.mutationStamp(1L), List.of(message(1L, 12L)), true);
+
+        cache.append(message(1L, 11L));
+
+        assertThat(cache.findPage(1L, null, 10)).isEmpty();
+    }
+
+    @Test
+    void neverStoresInRelayMode() {
+        ActivityChatHistoryCache cache = new ActivityChatHistoryCache(10, 1_000_000, BrokerMode.RELAY, meterRegistry);
+
+        cache.store(1L, cache.mutationStamp(1L), List.of(message(1L, 11L)), true);
+
+        assertThat(cache.findPage(1L, null, 10)).isEmpty();
+    }
+
+    private static CachedChatMessage message(Long activityId, Long id) {
+        return new CachedChatMessage(id, activityId, id, 1L, "s", "m", BASE_TIME.plusSeconds(id), 0, 0, Map.of());
+    }
+}
@@ -0,0 +1,153 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.dto.chat.ChatMessageResponse;
+import com.scutelnic.joinus.entity.Activity;
+import com.scutelnic.joinus.entity.ActivityParticipation;
+import com.scutelnic.joinus.entity.ParticipationStatus;
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.repository.ActivityParticipationRepository;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import com.scutelnic.joinus.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ActivityChatHistoryQueryBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityChatHistoryQueryBenchmarkTest.class);
+    private static final int MESSAGES = 100;
+    private static final int MEMBERS = 4;
+    private static final int MEASURED_RUNS = 20;
+    private static final long MAX_STATEMENTS_PER_PAGE = 8;
+
+    @Autowired
+    private ActivityChatService chatService;
+    @Autowired
+    private ActivityChatHistoryCache historyCache;
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private ActivityParticipationRepository participationRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<User> members = new ArrayList<>();
+    private Statistics statistics;
+    private User organizer;
+    private Activity activity;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        organizer = saveUser("organizer-" + run + "@joinus.test");
+
+        activity = new Activity();
+        activity.setTitle("History benchmark " + run);
+        activity.setDescription("Receipt counts per history page");
+        activity.setDate(LocalDate.now().plusDays(1));
+        activity.setTime(LocalTime.NOON);
+        activity.setLocation("Chisinau");
+        activity.setAddress("Str. Test 1");
+        activity.setCapacity(MEMBERS + 1);
+        activity.setCreator(organizer);
+        activity.setCreatedAt(LocalDateTime.now());
+        activity = activityRepository.save(activity);
+
+        for (int i = 0; i < MEMBERS; i++) {
+            User member = saveUser("member-" + i + "-" + run + "@joinus.test");
+            ActivityParticipation participation = new ActivityParticipation();
+            participation.setActivity(activity);
+            participation.setUser(member);
+            participation.setStatus(ParticipationStatus.APPROVED);
+            participationRepository.save(participation);
+            members.add(member);
+        }
+
+        Long lastMessageId = null;
+        for (int i = 0; i < MESSAGES; i++) {
+            User sender = i % 2 == 0 ? organizer : members.get(i % MEMBERS);
+            lastMessageId = chatService.sendMessage(activity.getId(), sender.getEmail(), "Message " + i).id();
+            if (i % 5 == 0) {
+                chatService.toggleReaction(activity.getId(), lastMessageId, "LIKE", members.get(0).getEmail());
+            }
+        }
+        for (User member : members.subList(0, MEMBERS - 1)) {
+            chatService.markSeenUpTo(activity.getId(), lastMessageId, member.getEmail());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        activityService.deleteActivityWithRelations(activity.getId());
+        userRepository.deleteAll(members);
+        userRepository.delete(organizer);
+    }
+
+    @Test
+    void historyPageRunsAConstantNumberOfStatementsWithReceiptCounts() {
+        String viewerEmail = members.get(0).getEmail();
+        // Warms the access cache and connection pool so only the page itself is measured.
+        loadUncachedPage(viewerEmail, MESSAGES);
+
+        long smallPageStatements = countStatements(() -> loadUncachedPage(viewerEmail, 10));
+        long fullPageStatements = countStatements(() -> assertThat(loadUncachedPage(viewerEmail, MESSAGES))
+                .hasSize(MESSAGES)
+                .filteredOn(message -> message.senderId().equals(organizer.getId()))
+                .allSatisfy(message -> assertThat(message.seenCount()).isEqualTo(MEMBERS - 1)));
+
+        long totalNanos = 0;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long startedAt = System.nanoTime();
+            loadUncachedPage(viewerEmail, MESSAGES);
+            totalNanos += System.nanoTime() - startedAt;
+        }
+        Duration average = Duration.ofNanos(totalNanos / MEASURED_RUNS);
+        log.info("History page of {} messages: {} statements, {} ms average over {} uncached runs",
+                MESSAGES, fullPageStatements, average.toMillis(), MEASURED_RUNS);
+
+        assertThat(fullPageStatements).isEqualTo(smallPageStatements);
+        assertThat(fullPageStatements).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    private List<ChatMessageResponse> loadUncachedPage(String viewerEmail, int limit) {
+        historyCache.evict(activity.getId());
+        return chatService.getRecentMessages(activity.getId(), limit, null, viewerEmail);
+    }
+
+    private long countStatements(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User saveUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName(email);
+        user.setPassword("not-used");
+        return userRepository.save(user);
+    }
+}
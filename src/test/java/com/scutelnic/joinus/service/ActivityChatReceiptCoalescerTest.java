@@ -0,0 +1,95 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.dto.chat.SeenBatchUpdateEvent;
+import com.scutelnic.joinus.dto.chat.SeenUpdateEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActivityChatReceiptCoalescerTest {
+
+    private static final Long ACTIVITY_ID = 7L;
+
+    private final ActivityChatService chatService = mock(ActivityChatService.class);
+    private final ActivityChatEventPublisher eventPublisher = mock(ActivityChatEventPublisher.class);
+    private final ActivityChatReceiptCoalescer coalescer = new ActivityChatReceiptCoalescer(chatService, eventPublisher);
+
+    @Test
+    void publishesOneBatchForTheWholeBuffer() {
+        when(chatService.applyReceiptBatch(eq(ACTIVITY_ID), anyMap(), anyMap()))
+                .thenReturn(List.of(new SeenUpdateEvent(100L, 2, 1)));
+        coalescer.enqueueDelivered(ACTIVITY_ID, 1L, 100L);
+        coalescer.enqueueSeen(ACTIVITY_ID, 2L, 100L);
+
+        coalescer.flush();
+
+        verify(chatService, times(1)).applyReceiptBatch(
+                ACTIVITY_ID,
+                Map.of(1L, Set.of(100L)),
+                Map.of(2L, Set.of(100L))
+        );
+        verify(eventPublisher).publishStatus(ACTIVITY_ID,
+                new SeenBatchUpdateEvent(ACTIVITY_ID, List.of(new SeenUpdateEvent(100L, 2, 1))));
+    }
+
+    @Test
+    void failedBatchKeepsOtherUsersReceiptsAndRetriesTheFailingUser() {
+        AtomicBoolean userTwoFails = new AtomicBoolean(true);
+        when(chatService.applyReceiptBatch(eq(ACTIVITY_ID), anyMap(), anyMap())).thenAnswer(invocation -> {
+            Map<Long, Set<Long>> delivered = invocation.getArgument(1);
+            Map<Long, Set<Long>> seen = invocation.getArgument(2);
+            boolean includesUserTwo = delivered.containsKey(2L) || seen.containsKey(2L);
+            if (includesUserTwo && userTwoFails.get()) {
+                throw new IllegalStateException("deadlock detected");
+            }
+            return includesUserTwo
+                    ? List.of(new SeenUpdateEvent(101L, 1, 1))
+                    : List.of(new SeenUpdateEvent(100L, 1, 1));
+        });
+        coalescer.enqueueSeen(ACTIVITY_ID, 1L, 100L);
+        coalescer.enqueueSeen(ACTIVITY_ID, 2L, 101L);
+
+        coalescer.flush();
+
+        verify(chatService).applyReceiptBatch(ACTIVITY_ID, Map.of(), Map.of(1L, Set.of(100L)));
+        verify(eventPublisher).publishStatus(ACTIVITY_ID,
+                new SeenBatchUpdateEvent(ACTIVITY_ID, List.of(new SeenUpdateEvent(100L, 1, 1))));
+
+        userTwoFails.set(false);
+        coalescer.flush();
+
+        verify(eventPublisher).publishStatus(ACTIVITY_ID,
+                new SeenBatchUpdateEvent(ACTIVITY_ID, List.of(new SeenUpdateEvent(101L, 1, 1))));
+    }
+
+    @Test
+    void dropsReceiptsThatKeepFailingAfterBoundedRetries() {
+        when(chatService.applyReceiptBatch(eq(ACTIVITY_ID), anyMap(), anyMap()))
+                .thenThrow(new IllegalStateException("constraint violation"));
+        coalescer.enqueueDelivered(ACTIVITY_ID, 2L, 101L);
+
+        for (int i = 0; i < 5; i++) {
+            coalescer.flush();
+        }
+
+        ArgumentCaptor<Map<Long, Set<Long>>> delivered = ArgumentCaptor.forClass(Map.class);
+        // Three flushes, each trying the batch and then the single user.
+        verify(chatService, times(6)).applyReceiptBatch(eq(ACTIVITY_ID), delivered.capture(), anyMap());
+        assertThat(delivered.getAllValues()).allSatisfy(value -> assertThat(value).containsKey(2L));
+        verify(eventPublisher, never()).publishStatus(eq(ACTIVITY_ID), any());
+    }
+}
@@ -0,0 +1,124 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig.BrokerMode;
+import com.scutelnic.joinus.entity.Activity;
+import com.scutelnic.joinus.entity.ActivityParticipation;
+import com.scutelnic.joinus.entity.ParticipationStatus;
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.repository.ActivityMessageReactionCountRepository;
+import com.scutelnic.joinus.repository.ActivityMessageReactionRepository;
+import com.scutelnic.joinus.repository.ActivityMessageRepository;
+import com.scutelnic.joinus.repository.ActivityParticipationRepository;
+import com.scutelnic.joinus.repository.ActivityPollOptionRepository;
+import com.scutelnic.joinus.repository.ActivityPollRepository;
+import com.scutelnic.joinus.repository.ActivityPollVoteRepository;
+import com.scutelnic.joinus.repository.ActivityReadWatermarkRepository;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import com.scutelnic.joinus.repository.ActivityUnreadCounterRepository;
+import com.scutelnic.joinus.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActivityParticipationServiceTest {
+
+    private static final Long ACTIVITY_ID = 7L;
+    private static final Long REQUEST_ID = 70L;
+    private static final String ORGANIZER_EMAIL = "organizer@joinus.test";
+    private static final String MEMBER_EMAIL = "member@joinus.test";
+
+    private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+    private final ActivityParticipationRepository participationRepository = mock(ActivityParticipationRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ActivityUnreadCounterRepository unreadCounterRepository = mock(ActivityUnreadCounterRepository.class);
+    private final ActivityUnreadNotifier unreadNotifier = mock(ActivityUnreadNotifier.class);
+
+    private ChatSessionPrincipalRegistry sessionPrincipalRegistry;
+    private ActivityParticipationService participationService;
+    private ActivityChatService chatService;
+    private User member;
+    private ActivityParticipation participation;
+
+    @BeforeEach
+    void setUp() {
+        User organizer = user(1L, ORGANIZER_EMAIL);
+        member = user(2L, MEMBER_EMAIL);
+
+        Activity activity = new Activity();
+        activity.setId(ACTIVITY_ID);
+        activity.setCreator(organizer);
+        activity.setCapacity(10);
+
+        participation = new ActivityParticipation();
+        participation.setId(REQUEST_ID);
+        participation.setActivity(activity);
+        participation.setUser(member);
+        participation.setStatus(ParticipationStatus.APPROVED);
+
+        when(activityRepository.findWithCreatorById(ACTIVITY_ID)).thenReturn(Optional.of(activity));
+        when(activityRepository.findAccessibleIdsByUserId(member.getId())).thenReturn(List.of(ACTIVITY_ID));
+        when(userRepository.findByEmail(ORGANIZER_EMAIL)).thenReturn(Optional.of(organizer));
+        when(userRepository.findByEmail(MEMBER_EMAIL)).thenReturn(Optional.of(member));
+        when(participationRepository.findByIdAndActivityId(REQUEST_ID, ACTIVITY_ID)).thenReturn(Optional.of(participation));
+
+        AccessibleActivityCache accessibleActivityCache =
+                new AccessibleActivityCache(activityRepository, 100, BrokerMode.SIMPLE, new SimpleMeterRegistry());
+        sessionPrincipalRegistry = new ChatSessionPrincipalRegistry(userRepository, accessibleActivityCache, BrokerMode.SIMPLE);
+        participationService = new ActivityParticipationService(activityRepository, participationRepository,
+                userRepository, unreadCounterRepository, sessionPrincipalRegistry, accessibleActivityCache, unreadNotifier);
+        chatService = new ActivityChatService(activityRepository, userRepository,
+                mock(ActivityMessageRepository.class), mock(ActivityMessageReactionRepository.class),
+                mock(ActivityMessageReactionCountRepository.class), mock(ActivityPollRepository.class),
+                mock(ActivityPollOptionRepository.class), mock(ActivityPollVoteRepository.class),
+                mock(ActivityReadWatermarkRepository.class), unreadCounterRepository, participationService,
+                mock(ActivityChatHistoryCache.class), sessionPrincipalRegistry, unreadNotifier);
+    }
+
+    @Test
+    void rejectingApprovedParticipantRevokesConnectedChatAccess() {
+        connect(MEMBER_EMAIL, "session-1");
+        assertThat(sessionPrincipalRegistry.find(MEMBER_EMAIL))
+                .hasValueSatisfying(principal -> assertThat(principal.canAccess(ACTIVITY_ID)).isTrue());
+
+        participationService.rejectRequest(ACTIVITY_ID, REQUEST_ID, ORGANIZER_EMAIL);
+
+        assertThat(participation.getStatus()).isEqualTo(ParticipationStatus.REJECTED);
+        verify(unreadCounterRepository).deleteByActivityIdAndUserId(ACTIVITY_ID, member.getId());
+        assertThatThrownBy(() -> chatService.getPolls(ACTIVITY_ID, MEMBER_EMAIL))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        error -> assertThat(error.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN));
+    }
+
+    private void connect(String email, String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        Principal principal = () -> email;
+        sessionPrincipalRegistry.onSessionConnect(new SessionConnectEvent(this, message, principal));
+    }
+
+    private static User user(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFullName(email);
+        return user;
+    }
+}
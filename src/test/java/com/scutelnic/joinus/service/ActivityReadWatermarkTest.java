@@ -0,0 +1,183 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.dto.chat.SeenBatchUpdateEvent;
+import com.scutelnic.joinus.dto.chat.SeenUserResponse;
+import com.scutelnic.joinus.entity.Activity;
+import com.scutelnic.joinus.entity.ActivityParticipation;
+import com.scutelnic.joinus.entity.ParticipationStatus;
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.repository.ActivityParticipationRepository;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import com.scutelnic.joinus.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ActivityReadWatermarkTest {
+
+    @Autowired
+    private ActivityChatService chatService;
+    @Autowired
+    private ActivityService activityService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ActivityRepository activityRepository;
+    @Autowired
+    private ActivityParticipationRepository participationRepository;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User organizer;
+    private User ana;
+    private User ion;
+    private Activity activity;
+    private Long first;
+    private Long second;
+    private Long third;
+    private Long announcement;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        organizer = saveUser("organizer-" + run + "@joinus.test");
+        ana = saveUser("ana-" + run + "@joinus.test");
+        ion = saveUser("ion-" + run + "@joinus.test");
+
+        activity = new Activity();
+        activity.setTitle("Watermarks " + run);
+        activity.setDescription("Read watermarks");
+        activity.setDate(LocalDate.now().plusDays(1));
+        activity.setTime(LocalTime.NOON);
+        activity.setLocation("Chisinau");
+        activity.setAddress("Str. Test 1");
+        activity.setCapacity(3);
+        activity.setCreator(organizer);
+        activity.setCreatedAt(LocalDateTime.now());
+        activity = activityRepository.save(activity);
+        approve(ana);
+        approve(ion);
+
+        first = chatService.sendMessage(activity.getId(), organizer.getEmail(), "First").id();
+        second = chatService.sendMessage(activity.getId(), organizer.getEmail(), "Second").id();
+        third = chatService.sendMessage(activity.getId(), organizer.getEmail(), "Third").id();
+        announcement = chatService.createAnnouncement(activity.getId(), organizer.getEmail(), "Meet at noon").id();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop table if exists activity_message_seen");
+        activityService.deleteActivityWithRelations(activity.getId());
+        userRepository.deleteAll(List.of(ana, ion, organizer));
+    }
+
+    @Test
+    void startupScriptFoldsLegacySeenRowsIntoWatermarksOnceAndDropsTheTable() {
+        jdbcTemplate.execute("""
+                create table activity_message_seen (
+                    id bigserial primary key,
+                    message_id bigint not null,
+                    user_id bigint not null,
+                    seen_at timestamp not null
+                )
+                """);
+        LocalDateTime seenAt = LocalDateTime.of(2026, 1, 10, 9, 30);
+        insertLegacySeen(first, ana, seenAt);
+        insertLegacySeen(third, ana, seenAt.plusMinutes(5));
+        insertLegacySeen(announcement, ana, seenAt.plusMinutes(1));
+        insertLegacySeen(second, ion, seenAt);
+
+        runSchemaScript();
+
+        assertThat(watermark(ana))
+                .containsEntry("last_seen_message_id", third)
+                .containsEntry("last_seen_announcement_id", announcement);
+        assertThat(watermark(ion))
+                .containsEntry("last_seen_message_id", second)
+                .containsEntry("last_seen_announcement_id", 0L);
+        assertThat(jdbcTemplate.queryForObject("select to_regclass('activity_message_seen') is null", Boolean.class))
+                .isTrue();
+
+        // A second start finds no legacy table and leaves the watermarks alone.
+        runSchemaScript();
+        assertThat(watermark(ana)).containsEntry("last_seen_message_id", third);
+    }
+
+    @Test
+    void seenUpToAdvancesTheWatermarkOnlyForwards() {
+        long seenCountBefore = seenCount(third);
+
+        SeenBatchUpdateEvent advanced = chatService.markSeenUpTo(activity.getId(), third, ana.getEmail());
+        SeenBatchUpdateEvent stale = chatService.markSeenUpTo(activity.getId(), first, ana.getEmail());
+
+        assertThat(advanced.updates()).extracting(update -> update.messageId())
+                .containsExactly(first, second, third);
+        assertThat(stale.updates()).isEmpty();
+        assertThat(watermark(ana)).containsEntry("last_seen_message_id", third);
+        assertThat(seenCount(third)).isEqualTo(seenCountBefore + 1);
+        assertThat(chatService.getSeenUsers(second, organizer.getEmail()))
+                .extracting(SeenUserResponse::userId)
+                .containsExactly(ana.getId());
+    }
+
+    private void runSchemaScript() {
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+    }
+
+    private void insertLegacySeen(Long messageId, User user, LocalDateTime seenAt) {
+        jdbcTemplate.update(
+                "insert into activity_message_seen (message_id, user_id, seen_at) values (?, ?, ?)",
+                messageId, user.getId(), seenAt
+        );
+    }
+
+    private Map<String, Object> watermark(User user) {
+        return jdbcTemplate.queryForMap(
+                "select last_seen_message_id, last_seen_announcement_id from activity_read_watermarks where activity_id = ? and user_id = ?",
+                activity.getId(), user.getId()
+        );
+    }
+
+    private long seenCount(Long messageId) {
+        Long count = jdbcTemplate.queryForObject(
+                "select coalesce(seen_count, 0) from activity_messages where id = ?",
+                Long.class,
+                messageId
+        );
+        return count != null ? count : 0L;
+    }
+
+    private void approve(User user) {
+        ActivityParticipation participation = new ActivityParticipation();
+        participation.setActivity(activity);
+        participation.setUser(user);
+        participation.setStatus(ParticipationStatus.APPROVED);
+        participationRepository.save(participation);
+    }
+
+    private User saveUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName(email);
+        user.setPassword("not-used");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,97 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.repository.ActivityMessageDeliveredRepository;
+import com.scutelnic.joinus.repository.ActivityMessageReactionCountRepository;
+import com.scutelnic.joinus.repository.ActivityMessageReactionRepository;
+import com.scutelnic.joinus.repository.ActivityMessageRepository;
+import com.scutelnic.joinus.repository.ActivityParticipationRepository;
+import com.scutelnic.joinus.repository.ActivityPollOptionRepository;
+import com.scutelnic.joinus.repository.ActivityPollRepository;
+import com.scutelnic.joinus.repository.ActivityPollVoteRepository;
+import com.scutelnic.joinus.repository.ActivityReadWatermarkRepository;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import com.scutelnic.joinus.repository.ActivityUnreadCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ActivityServiceSearchTest {
+
+    private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+    private final ActivityService activityService = new ActivityService(
+            activityRepository,
+            mock(ActivityParticipationRepository.class),
+            mock(ActivityMessageRepository.class),
+            mock(ActivityMessageDeliveredRepository.class),
+            mock(ActivityMessageReactionRepository.class),
+            mock(ActivityMessageReactionCountRepository.class),
+            mock(ActivityPollRepository.class),
+            mock(ActivityPollOptionRepository.class),
+            mock(ActivityPollVoteRepository.class),
+            mock(ActivityReadWatermarkRepository.class),
+            mock(ActivityUnreadCounterRepository.class),
+            mock(ActivityChatHistoryCache.class),
+            mock(ChatSessionPrincipalRegistry.class),
+            mock(AccessibleActivityCache.class)
+    );
+
+    @ParameterizedTest
+    @CsvSource(delimiterString = "=>", value = {
+            "fotbal => fotbal:*",
+            "Fotbal  Seara => fotbal:* & seara:*",
+            "fotbal & tenis | !sah => fotbal:* & tenis:* & sah:*",
+            "'fotbal:A*' => fotbal:* & a:*",
+            "drumeție în Țara Moților => drumeție:* & în:* & țara:* & moților:*",
+            "Ștefan cel Mare => ștefan:* & cel:* & mare:*",
+            "<-> (yoga) 2026 => yoga:* & 2026:*"
+    })
+    void buildsPrefixQueryFromWordsOnly(String input, String expected) {
+        assertThat(searchedTsQuery(input)).isEqualTo(expected);
+    }
+
+    @Test
+    void composesDecomposedDiacritics() {
+        assertThat(searchedTsQuery("s\u0326ah t\u0326ara")).isEqualTo("\u0219ah:* & \u021bara:*");
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "   ", "\t\n", "& | ! :", "()<->*"})
+    void returnsEmptyPageWithoutQueryingWhenNoTermsRemain(String input) {
+        Page<?> page = activityService.search(input, false, 0, 10);
+
+        assertThat(page.isEmpty()).isTrue();
+        verifyNoInteractions(activityRepository);
+    }
+
+    @Test
+    void usesRecencyOrderingWhenAskedForNewestFirst() {
+        activityService.search("fotbal", true, 0, 10);
+
+        verify(activityRepository).searchByRecency(anyString(), any(Pageable.class));
+        verify(activityRepository, never()).searchByRelevance(anyString(), any(Pageable.class));
+    }
+
+    private String searchedTsQuery(String input) {
+        when(activityRepository.searchByRelevance(anyString(), any(Pageable.class))).thenReturn(Page.empty());
+        activityService.search(input, false, 0, 10);
+
+        ArgumentCaptor<String> tsQuery = ArgumentCaptor.forClass(String.class);
+        verify(activityRepository).searchByRelevance(tsQuery.capture(), any(Pageable.class));
+        return tsQuery.getValue();
+    }
+}
@@ -0,0 +1,175 @@
+package com.scutelnic.joinus.service;
+
+import com.scutelnic.joinus.config.WebSocketConfig.BrokerMode;
+import com.scutelnic.joinus.entity.User;
+import com.scutelnic.joinus.repository.ActivityRepository;
+import com.scutelnic.joinus.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChatSessionPrincipalRegistryTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+    private AccessibleActivityCache accessibleActivityCache;
+    private ChatSessionPrincipalRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        stubUser(1L, "ana@joinus.test", List.of(10L, 20L));
+        stubUser(2L, "ion@joinus.test", List.of(10L));
+        accessibleActivityCache =
+                new AccessibleActivityCache(activityRepository, 100, BrokerMode.SIMPLE, new SimpleMeterRegistry());
+        registry = new ChatSessionPrincipalRegistry(userRepository, accessibleActivityCache, BrokerMode.SIMPLE);
+    }
+
+    @Test
+    void indexesConnectedPrincipalsByActivity() {
+        connect("ana@joinus.test", "s1");
+        connect("ion@joinus.test", "s2");
+
+        assertThat(userIdsWithAccess(10L)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(userIdsWithAccess(20L)).containsExactly(1L);
+        assertThat(userIdsWithAccess(30L)).isEmpty();
+    }
+
+    @Test
+    void keepsIndexInStepWithGrantsAndRevocations() {
+        connect("ion@joinus.test", "s1");
+
+        registry.grantAccess(2L, 30L);
+        registry.revokeAccess(2L, 10L);
+
+        assertThat(userIdsWithAccess(30L)).containsExactly(2L);
+        assertThat(userIdsWithAccess(10L)).isEmpty();
+    }
+
+    @Test
+    void dropsPrincipalFromIndexWhenLastSessionDisconnects() {
+        connect("ana@joinus.test", "s1");
+        connect("ana@joinus.test", "s2");
+
+        disconnect("ana@joinus.test", "s1");
+        assertThat(userIdsWithAccess(20L)).containsExactly(1L);
+
+        disconnect("ana@joinus.test", "s2");
+        assertThat(userIdsWithAccess(20L)).isEmpty();
+    }
+
+    @Test
+    void revokeActivityClearsEveryPrincipal() {
+        connect("ana@joinus.test", "s1");
+        connect("ion@joinus.test", "s2");
+
+        registry.revokeActivity(10L);
+
+        assertThat(userIdsWithAccess(10L)).isEmpty();
+        assertThat(registry.find("ion@joinus.test"))
+                .hasValueSatisfying(principal -> assertThat(principal.canAccess(10L)).isFalse());
+    }
+
+    @Test
+    void revocationCommittedWhileConnectLoadsAccessIsNotLost() {
+        when(activityRepository.findAccessibleIdsByUserId(2L))
+                .thenAnswer(invocation -> {
+                    accessibleActivityCache.invalidateUser(2L);
+                    registry.revokeAccess(2L, 10L);
+                    return List.of(10L);
+                })
+                .thenReturn(List.of());
+
+        connect("ion@joinus.test", "s1");
+
+        assertThat(registry.find("ion@joinus.test"))
+                .hasValueSatisfying(principal -> assertThat(principal.canAccess(10L)).isFalse());
+        assertThat(userIdsWithAccess(10L)).isEmpty();
+        verify(activityRepository, times(2)).findAccessibleIdsByUserId(2L);
+    }
+
+    @Test
+    void activityDeletedWhileConnectLoadsAccessIsNotLost() {
+        when(activityRepository.findAccessibleIdsByUserId(2L))
+                .thenAnswer(invocation -> {
+                    accessibleActivityCache.invalidateActivity(10L);
+                    registry.revokeActivity(10L);
+                    return List.of(10L);
+                })
+                .thenReturn(List.of());
+
+        connect("ion@joinus.test", "s1");
+
+        assertThat(userIdsWithAccess(10L)).isEmpty();
+    }
+
+    @Test
+    void refreshesDisplayNameAfterProfileUpdate() {
+        connect("ana@joinus.test", "s1");
+
+        registry.updateFullName(1L, "Ana Popescu");
+
+        assertThat(registry.find("ana@joinus.test"))
+                .hasValueSatisfying(principal -> assertThat(principal.fullName()).isEqualTo("Ana Popescu"));
+    }
+
+    @Test
+    void leavesDisplayNameToDatabaseInRelayMode() {
+        AccessibleActivityCache accessibleActivityCache =
+                new AccessibleActivityCache(activityRepository, 100, BrokerMode.RELAY, new SimpleMeterRegistry());
+        registry = new ChatSessionPrincipalRegistry(userRepository, accessibleActivityCache, BrokerMode.RELAY);
+        connect("ana@joinus.test", "s1");
+
+        registry.updateFullName(1L, "Ana Popescu");
+
+        assertThat(registry.find("ana@joinus.test"))
+                .hasValueSatisfying(principal -> assertThat(principal.fullName()).isNull());
+    }
+
+    private List<Long> userIdsWithAccess(Long activityId) {
+        return registry.findConnectedWithAccess(activityId).stream()
+                .map(ChatSessionPrincipalRegistry.ChatSessionPrincipal::userId)
+                .toList();
+    }
+
+    private void stubUser(Long id, String email, List<Long> activityIds) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFullName(email);
+        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(activityRepository.findAccessibleIdsByUserId(id)).thenReturn(activityIds);
+    }
+
+    private void connect(String email, String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        Principal principal = () -> email;
+        registry.onSessionConnect(new SessionConnectEvent(this, message, principal));
+    }
+
+    private void disconnect(String email, String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        Principal principal = () -> email;
+        registry.onSessionDisconnect(new SessionDisconnectEvent(this, message, sessionId, CloseStatus.NORMAL, principal));
+    }
+}